@@ -0,0 +1,131 @@
+/**
+ * Description: A flat-array percolation grid on the shared int[] union-find.
+ *
+ * Compilation: javac FlatPercolation.java
+ * Execution: java FlatPercolation
+ *
+ * Purpose of the program: Same open/isOpen/isFull/percolates/numberOfOpenSites contract as Percolation,
+ * but sized for very large grids. Site state lives in one byte[] and the union-find (UnionFind) in one
+ * int[] where a root stores the negated size of its tree, so a site costs 5 bytes instead of the ~9 bytes
+ * of boolean[][] plus WeightedQuickUnionUF's parent[] and size[]. Indices are validated once at the
+ * public API; the neighbor scan and the union-find (path halving, union by size) are unchecked.
+ * Like Percolation, roots carry "connected to top/bottom" bits in their state byte instead of
+ * linking to virtual sites, so isFull has no backwash and there is no second union-find.
+ */
+
+import java.util.Arrays;
+
+public class FlatPercolation{
+    private static final byte BLOCKED = 0;
+    private static final byte OPEN = 1;
+    private static final byte CONNECTED_TOP = 2;
+    private static final byte CONNECTED_BOTTOM = 4;
+
+    private final int n;
+    private final byte[] state;
+    private final UnionFind uf;
+    private int openSites;
+    private boolean percolates;
+
+    // creates n-by-n grid, with all sites initially blocked
+    public FlatPercolation(int n){
+        if(n <= 0 || n > 46340){ throw new IllegalArgumentException("Invalid grid size");}
+        this.n = n;
+        int sites = n * n;
+        state = new byte[sites];
+        uf = new UnionFind(sites, state);
+        openSites = 0;
+        percolates = false;
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col){
+        validateIndices(row, col);
+        int index = (row - 1) * n + (col - 1);
+        if(state[index] == BLOCKED){
+            byte flags = OPEN;
+            if(row == 1) flags |= CONNECTED_TOP;
+            if(row == n) flags |= CONNECTED_BOTTOM;
+
+            state[index] = flags;
+            openSites ++;
+
+            int root = unionNeighbors(index, row - 1, col - 1);
+            if((state[root] & (CONNECTED_TOP | CONNECTED_BOTTOM)) == (CONNECTED_TOP | CONNECTED_BOTTOM)){
+                percolates = true;
+            }
+        }
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col){
+        validateIndices(row, col);
+        return state[(row - 1) * n + (col - 1)] != BLOCKED;
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col){
+        validateIndices(row, col);
+        int index = (row - 1) * n + (col - 1);
+        return state[index] != BLOCKED && (state[uf.find(index)] & CONNECTED_TOP) != 0;
+    }
+
+    // blocks every site again, reusing the existing arrays
+    public void reset(){
+        Arrays.fill(state, BLOCKED);
+        uf.reset();
+        openSites = 0;
+        percolates = false;
+    }
+
+    // returns the number of open sites
+    public int numberOfOpenSites(){
+        return openSites;
+    }
+
+    // does the system percolate?
+    public boolean percolates(){
+        return percolates;
+    }
+
+    // Connect the open site at index (0-based r, c) with its open neighbors and return the merged root;
+    // no bounds checks past this point
+    private int unionNeighbors(int index, int r, int c){
+        if(r > 0 && state[index - n] != BLOCKED){
+            uf.union(index, index - n);
+        }
+        if(r < n - 1 && state[index + n] != BLOCKED){
+            uf.union(index, index + n);
+        }
+        if(c > 0 && state[index - 1] != BLOCKED){
+            uf.union(index, index - 1);
+        }
+        if(c < n - 1 && state[index + 1] != BLOCKED){
+            uf.union(index, index + 1);
+        }
+        return uf.find(index);
+    }
+
+    // Validate if the row and column indices are within the grid bounds
+    private void validateIndices(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException("row and col indices are not valid!");
+        }
+    }
+
+    //test client (optional)
+    public static void main(String[] args){
+        FlatPercolation percolation = new FlatPercolation(3);
+
+        percolation.open(1, 1);
+        percolation.open(2, 1);
+        System.out.println("Does it percolate? " + percolation.percolates());
+        percolation.open(3, 2);
+        percolation.open(2, 2);
+
+        System.out.println("Number of open sites: " + percolation.numberOfOpenSites());
+        System.out.println("Does it percolate? " + percolation.percolates());
+        System.out.println("Is site (3, 2) full? " + percolation.isFull(3, 2));
+        System.out.println("Is site (1, 3) full? " + percolation.isFull(1, 3));
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Description: Geometry of a lattice for LatticePercolation.
+ *
+ * Compilation: javac Lattice.java
+ * Execution: java Lattice
+ *
+ * Purpose of the program: Describes square (4 and 8 neighbors), triangular, honeycomb and simple cubic
+ * lattices of linear size n as flat index deltas, so the percolation engine never does coordinate
+ * arithmetic in its neighbor loop. Sites are stored with a one-site border of permanently blocked sites
+ * around the lattice, which lets every delta be applied without a bounds check. The honeycomb lattice is
+ * drawn as a brick wall whose vertical bond alternates up/down with (row + col) parity; the padded width
+ * is kept odd so that parity is simply the parity of the padded index.
+ *
+ * Sites are numbered 0..sites()-1 in row-major order (for the cube: z, then y, then x). Percolation is
+ * measured from the first layer (row 0, or z = 0) to the last.
+ */
+
+import java.util.Arrays;
+
+public final class Lattice {
+    private final String name;
+    private final int n;
+    private final int dimensions;
+    private final int width;        // padded row length
+    private final int layerStride;  // padded distance between consecutive layers (rows, or planes of the cube)
+    private final int paddedSize;
+    private final int[][] neighbors;        // deltas to every neighbor, indexed by padded index parity
+    private final int[][] forwardNeighbors; // the positive deltas, one per bond, indexed the same way
+    private final int bonds;
+
+    private Lattice(String name, int n, int dimensions, boolean oddWidth, int[][] neighbors){
+        this.name = name;
+        this.n = n;
+        this.dimensions = dimensions;
+        this.width = oddWidth && (n + 2) % 2 == 0 ? n + 3 : n + 2;
+        this.layerStride = dimensions == 2 ? width : width * (n + 2);
+        this.paddedSize = layerStride * (n + 2);
+        this.neighbors = neighbors;
+        this.forwardNeighbors = new int[neighbors.length][];
+        for(int parity = 0; parity < neighbors.length; parity++){
+            forwardNeighbors[parity] = Arrays.stream(neighbors[parity]).filter(d -> d > 0).toArray();
+        }
+
+        int count = 0;
+        for(int site = 0; site < sites(); site++){
+            int p = padded(site);
+            for(int d : forwardNeighbors(p)){
+                if(isSite(p + d)){
+                    count++;
+                }
+            }
+        }
+        this.bonds = count;
+    }
+
+    // square lattice, 4 neighbors
+    public static Lattice square(int n){
+        validate(n);
+        int w = n + 2;
+        return new Lattice("square", n, 2, false, new int[][] { { -w, w, -1, 1 } });
+    }
+
+    // square lattice with diagonal neighbors, 8 neighbors
+    public static Lattice squareWithDiagonals(int n){
+        validate(n);
+        int w = n + 2;
+        return new Lattice("square-8", n, 2, false, new int[][] { { -w, w, -1, 1, -w - 1, -w + 1, w - 1, w + 1 } });
+    }
+
+    // triangular lattice, 6 neighbors, as a square lattice plus one diagonal
+    public static Lattice triangular(int n){
+        validate(n);
+        int w = n + 2;
+        return new Lattice("triangular", n, 2, false, new int[][] { { -w, w, -1, 1, -w + 1, w - 1 } });
+    }
+
+    // honeycomb (hexagonal) lattice, 3 neighbors
+    public static Lattice honeycomb(int n){
+        validate(n);
+        int w = (n + 2) % 2 == 0 ? n + 3 : n + 2;
+        return new Lattice("honeycomb", n, 2, true, new int[][] { { -1, 1, w }, { -1, 1, -w } });
+    }
+
+    // simple cubic lattice, 6 neighbors
+    public static Lattice cubic(int n){
+        validate(n);
+        if((long) (n + 2) * (n + 2) * (n + 2) > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Invalid lattice size");
+        }
+        int w = n + 2;
+        int plane = w * w;
+        return new Lattice("cubic", n, 3, false, new int[][] { { -plane, plane, -w, w, -1, 1 } });
+    }
+
+    // the lattice by name: square, square-8, triangular, honeycomb or cubic
+    public static Lattice of(String name, int n){
+        switch (name){
+            case "square": return square(n);
+            case "square-8": return squareWithDiagonals(n);
+            case "triangular": return triangular(n);
+            case "honeycomb": return honeycomb(n);
+            case "cubic": return cubic(n);
+            default: throw new IllegalArgumentException("Unknown lattice: " + name);
+        }
+    }
+
+    // linear size
+    public int size(){
+        return n;
+    }
+
+    // number of sites
+    public int sites(){
+        return dimensions == 2 ? n * n : n * n * n;
+    }
+
+    // number of bonds between two sites of the lattice
+    public int bonds(){
+        return bonds;
+    }
+
+    @Override
+    public String toString(){
+        return name + "(" + n + ")";
+    }
+
+    // length of the padded arrays, border included
+    int paddedSize(){
+        return paddedSize;
+    }
+
+    // padded index of a site
+    int padded(int site){
+        if(dimensions == 2){
+            return (site / n + 1) * width + site % n + 1;
+        }
+        int layer = site / (n * n);
+        int rest = site % (n * n);
+        return (layer + 1) * layerStride + (rest / n + 1) * width + rest % n + 1;
+    }
+
+    // site at 0-based (row, col) of a 2D lattice
+    public int site(int row, int col){
+        return row * n + col;
+    }
+
+    // site at 0-based (z, y, x) of the cube
+    public int site(int z, int y, int x){
+        return (z * n + y) * n + x;
+    }
+
+    // 0-based layer a padded index lies in; 0 is the top layer, n - 1 the bottom one
+    int layer(int padded){
+        return padded / layerStride - 1;
+    }
+
+    // deltas from padded index p to each of its neighbors
+    int[] neighbors(int p){
+        return neighbors[p & (neighbors.length - 1)];
+    }
+
+    // deltas from padded index p to the neighbors it owns the bond to
+    int[] forwardNeighbors(int p){
+        return forwardNeighbors[p & (forwardNeighbors.length - 1)];
+    }
+
+    // most bonds any one site owns
+    int maxForwardNeighbors(){
+        int max = 0;
+        for(int[] deltas : forwardNeighbors){
+            max = Math.max(max, deltas.length);
+        }
+        return max;
+    }
+
+    // is padded index p a site of the lattice rather than part of the border?
+    boolean isSite(int p){
+        int layer = p / layerStride;
+        int row = (p % layerStride) / width;
+        int col = p % width;
+        if(dimensions == 2){
+            return layer >= 1 && layer <= n && col >= 1 && col <= n;
+        }
+        return layer >= 1 && layer <= n && row >= 1 && row <= n && col >= 1 && col <= n;
+    }
+
+    private static void validate(int n){
+        if(n <= 0 || n > 46000){
+            throw new IllegalArgumentException("Invalid lattice size");
+        }
+    }
+
+    // test client
+    public static void main(String[] args){
+        for(String name : new String[] { "square", "square-8", "triangular", "honeycomb", "cubic" }){
+            Lattice lattice = Lattice.of(name, 4);
+            System.out.println(lattice + ": " + lattice.sites() + " sites, " + lattice.bonds() + " bonds");
+        }
+    }
+}
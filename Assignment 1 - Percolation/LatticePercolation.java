@@ -0,0 +1,211 @@
+/**
+ * Description: Site or bond percolation on any Lattice.
+ *
+ * Compilation: javac LatticePercolation.java
+ * Execution: java-algs4 LatticePercolation cubic 40 SITE 200
+ *
+ * Purpose of the program: The FlatPercolation engine (byte state, the int[] UnionFind with path halving
+ * and union by size, top/bottom flags on roots) generalized to any lattice geometry. In SITE mode elements are
+ * sites and start blocked; in BOND mode every site starts open, elements are the bonds between neighbors,
+ * and opening a bond joins its two sites. The neighbor loop only adds precomputed deltas to a padded
+ * index, relying on the lattice's blocked border instead of bounds checks.
+ *
+ * Elements are addressed by slot. For sites a slot is the site number; for bonds it is
+ * site * lattice.maxForwardNeighbors() + k, the k-th bond the site owns, and slots that lead into the
+ * border are not bonds. open() reports whether it opened something, so a sampler can draw slots uniformly
+ * and simply discard the draws that open nothing.
+ */
+
+import java.util.Arrays;
+
+public class LatticePercolation{
+    private static final byte BLOCKED = 0;
+    private static final byte OPEN = 1;
+    private static final byte CONNECTED_TOP = 2;
+    private static final byte CONNECTED_BOTTOM = 4;
+
+    // what gets opened
+    public enum Kind {
+        SITE,
+        BOND
+    }
+
+    private final Lattice lattice;
+    private final Kind kind;
+    private final byte[] state;         // indexed by padded index; the border stays BLOCKED
+    private final UnionFind uf;         // over padded indices
+    private final long[] openBonds;     // one bit per bond slot, BOND mode only
+    private final int bondsPerSite;
+    private int opened;
+    private boolean percolates;
+    private long clusterSquares;        // sum over clusters of size^2, for PercolationSweep
+
+    // creates the lattice with every site (SITE) or every bond (BOND) blocked
+    public LatticePercolation(Lattice lattice, Kind kind){
+        if(lattice == null || kind == null){
+            throw new IllegalArgumentException("lattice and kind cannot be null");
+        }
+        if(kind == Kind.BOND && (long) lattice.sites() * lattice.maxForwardNeighbors() > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Lattice too large for bond percolation");
+        }
+        this.lattice = lattice;
+        this.kind = kind;
+        state = new byte[lattice.paddedSize()];
+        uf = new UnionFind(lattice.paddedSize(), state);
+        bondsPerSite = lattice.maxForwardNeighbors();
+        openBonds = kind == Kind.BOND ? new long[(int) (((long) slots() + 63) >>> 6)] : null;
+        reset();
+    }
+
+    // blocks everything again, reusing the existing arrays
+    public void reset(){
+        uf.reset();
+        Arrays.fill(state, BLOCKED);
+        opened = 0;
+        percolates = false;
+        clusterSquares = kind == Kind.BOND ? lattice.sites() : 0;
+        if(kind == Kind.BOND){
+            Arrays.fill(openBonds, 0L);
+            for(int site = 0; site < lattice.sites(); site ++){
+                int p = lattice.padded(site);
+                state[p] = siteFlags(p);
+                percolates |= state[p] == (OPEN | CONNECTED_TOP | CONNECTED_BOTTOM);
+            }
+        }
+    }
+
+    // number of slots open() accepts
+    public int slots(){
+        return kind == Kind.SITE ? lattice.sites() : lattice.sites() * bondsPerSite;
+    }
+
+    // number of sites (SITE) or bonds (BOND) that can be opened
+    public int elements(){
+        return kind == Kind.SITE ? lattice.sites() : lattice.bonds();
+    }
+
+    // opens the element in the slot; false if it was already open or the slot holds no bond
+    public boolean open(int slot){
+        if(slot < 0 || slot >= slots()){
+            throw new IllegalArgumentException("slot is not valid!");
+        }
+        return kind == Kind.SITE ? openSite(lattice.padded(slot)) : openBond(slot);
+    }
+
+    // number of elements opened so far
+    public int numberOfOpenElements(){
+        return opened;
+    }
+
+    // is the site open? (always, in BOND mode)
+    public boolean isOpen(int site){
+        return state[lattice.padded(validateSite(site))] != BLOCKED;
+    }
+
+    // is the site connected to the top layer through open sites and bonds?
+    public boolean isFull(int site){
+        int p = lattice.padded(validateSite(site));
+        return state[p] != BLOCKED && (state[uf.find(p)] & CONNECTED_TOP) != 0;
+    }
+
+    // does a cluster span from the top layer to the bottom layer?
+    public boolean percolates(){
+        return percolates;
+    }
+
+    // sum of the squared sizes of all clusters of open sites
+    long clusterSquares(){
+        return clusterSquares;
+    }
+
+    public Lattice lattice(){
+        return lattice;
+    }
+
+    public Kind kind(){
+        return kind;
+    }
+
+    private boolean openSite(int p){
+        if(state[p] != BLOCKED){
+            return false;
+        }
+        state[p] = siteFlags(p);
+        opened ++;
+        clusterSquares ++;
+        for(int d : lattice.neighbors(p)){
+            if(state[p + d] != BLOCKED){
+                union(p, p + d);
+            }
+        }
+        checkSpanning(uf.find(p));
+        return true;
+    }
+
+    private boolean openBond(int slot){
+        int p = lattice.padded(slot / bondsPerSite);
+        int[] forward = lattice.forwardNeighbors(p);
+        int k = slot % bondsPerSite;
+        if(k >= forward.length || state[p + forward[k]] == BLOCKED){
+            return false;
+        }
+        long bit = 1L << slot;
+        if((openBonds[slot >>> 6] & bit) != 0){
+            return false;
+        }
+        openBonds[slot >>> 6] |= bit;
+        opened ++;
+        union(p, p + forward[k]);
+        checkSpanning(uf.find(p));
+        return true;
+    }
+
+    // OPEN plus the top/bottom bits of the layer padded index p lies in
+    private byte siteFlags(int p){
+        int layer = lattice.layer(p);
+        byte flags = OPEN;
+        if(layer == 0) flags |= CONNECTED_TOP;
+        if(layer == lattice.size() - 1) flags |= CONNECTED_BOTTOM;
+        return flags;
+    }
+
+    private void checkSpanning(int root){
+        if((state[root] & (CONNECTED_TOP | CONNECTED_BOTTOM)) == (CONNECTED_TOP | CONNECTED_BOTTOM)){
+            percolates = true;
+        }
+    }
+
+    // UnionFind.union, also keeping clusterSquares up to date
+    private void union(int p, int q){
+        if(PercolationMetrics.ENABLED){
+            PercolationMetrics.union();
+        }
+        int rootP = uf.find(p);
+        int rootQ = uf.find(q);
+        if(rootP == rootQ){
+            return;
+        }
+        clusterSquares += 2L * uf.size(rootP) * uf.size(rootQ);
+        uf.link(rootP, rootQ);
+    }
+
+    private int validateSite(int site){
+        if(site < 0 || site >= lattice.sites()){
+            throw new IllegalArgumentException("site is not valid!");
+        }
+        return site;
+    }
+
+    // test client: estimate the threshold of a lattice
+    public static void main(String[] args){
+        Lattice lattice = Lattice.of(args[0], Integer.parseInt(args[1]));
+        Kind kind = Kind.valueOf(args[2]);
+        int trials = Integer.parseInt(args[3]);
+        PercolationStats stats = new PercolationStats(lattice, kind, trials, 0L,
+                Runtime.getRuntime().availableProcessors(), PercolationStats.Sampler.PERMUTATION, true);
+        System.out.println(kind + " percolation on " + lattice);
+        System.out.println("mean = " + stats.mean());
+        System.out.println("stddev = " + stats.stddev());
+        System.out.println("95% confidence interval = [" + stats.confidenceLo() + ", " + stats.confidenceHi() + "]");
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * Description: A percolation grid whose site state and union-find live in memory-mapped files.
+ *
+ * Compilation: javac MappedPercolation.java
+ * Execution: java MappedPercolation 1000 /mnt/scratch
+ *
+ * Purpose of the program: Same open/isOpen/isFull/percolates contract as FlatPercolation, for grids that
+ * do not fit in the heap (n = 100000 is 10^10 sites, about 90 GB). Each site takes one state byte and one
+ * long of union-find, stored in two files under the given directory and mapped in 1 GB shards, since a
+ * single MappedByteBuffer cannot exceed 2 GB. Both files are created with the SPARSE hint, so filesystems
+ * that honor it only allocate the blocks the grid has touched, and they are never initialized:
+ * a zero state byte is a blocked site, and a zero union-find entry is a root of size 1 (non-roots store
+ * parent + 1, roots store 1 - size). The files are deleted when the grid is closed.
+ */
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class MappedPercolation implements AutoCloseable{
+    private static final byte BLOCKED = 0;
+    private static final byte OPEN = 1;
+    private static final byte CONNECTED_TOP = 2;
+    private static final byte CONNECTED_BOTTOM = 4;
+
+    private final int n;
+    private final Shards state;     // one byte per site
+    private final Shards parent;    // one long per site, encoded as described above
+    private long openSites;
+    private boolean percolates;
+
+    // creates n-by-n grid, with all sites initially blocked, backed by files in directory
+    public MappedPercolation(int n, Path directory) throws IOException{
+        if(n <= 0){ throw new IllegalArgumentException("Invalid grid size");}
+        this.n = n;
+        long sites = (long) n * n;
+        state = new Shards(directory, "state", sites);
+        try {
+            parent = new Shards(directory, "parent", sites * Long.BYTES);
+        } catch (IOException e){
+            state.close();
+            throw e;
+        }
+        openSites = 0;
+        percolates = false;
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col){
+        validateIndices(row, col);
+        long index = (long) (row - 1) * n + (col - 1);
+        if(state.getByte(index) == BLOCKED){
+            byte flags = OPEN;
+            if(row == 1) flags |= CONNECTED_TOP;
+            if(row == n) flags |= CONNECTED_BOTTOM;
+
+            state.putByte(index, flags);
+            openSites ++;
+
+            long root = unionNeighbors(index, row - 1, col - 1);
+            if((state.getByte(root) & (CONNECTED_TOP | CONNECTED_BOTTOM)) == (CONNECTED_TOP | CONNECTED_BOTTOM)){
+                percolates = true;
+            }
+        }
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col){
+        validateIndices(row, col);
+        return state.getByte((long) (row - 1) * n + (col - 1)) != BLOCKED;
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col){
+        validateIndices(row, col);
+        long index = (long) (row - 1) * n + (col - 1);
+        return state.getByte(index) != BLOCKED && (state.getByte(find(index)) & CONNECTED_TOP) != 0;
+    }
+
+    // returns the number of open sites; a long, since n^2 can exceed Integer.MAX_VALUE
+    public long numberOfOpenSites(){
+        return openSites;
+    }
+
+    // does the system percolate?
+    public boolean percolates(){
+        return percolates;
+    }
+
+    // unmaps the grid and deletes its backing files
+    @Override
+    public void close() throws IOException{
+        try {
+            state.close();
+        } finally {
+            parent.close();
+        }
+    }
+
+    // Connect the open site at index (0-based r, c) with its open neighbors and return the merged root
+    private long unionNeighbors(long index, int r, int c){
+        if(r > 0 && state.getByte(index - n) != BLOCKED){
+            union(index, index - n);
+        }
+        if(r < n - 1 && state.getByte(index + n) != BLOCKED){
+            union(index, index + n);
+        }
+        if(c > 0 && state.getByte(index - 1) != BLOCKED){
+            union(index, index - 1);
+        }
+        if(c < n - 1 && state.getByte(index + 1) != BLOCKED){
+            union(index, index + 1);
+        }
+        return find(index);
+    }
+
+    // Root of p, halving the path on the way up
+    private long find(long p){
+        long q;
+        while((q = parent.getLong(p * Long.BYTES)) > 0){
+            q --;
+            long r = parent.getLong(q * Long.BYTES);
+            if(r <= 0){
+                return q;
+            }
+            parent.putLong(p * Long.BYTES, r);
+            p = r - 1;
+        }
+        return p;
+    }
+
+    // Link the smaller tree under the larger one and merge the roots' flags
+    private void union(long p, long q){
+        long rootP = find(p);
+        long rootQ = find(q);
+        if(rootP == rootQ){
+            return;
+        }
+        long sizeP = 1 - parent.getLong(rootP * Long.BYTES);
+        long sizeQ = 1 - parent.getLong(rootQ * Long.BYTES);
+        if(sizeP < sizeQ){
+            long t = rootP;
+            rootP = rootQ;
+            rootQ = t;
+        }
+        parent.putLong(rootP * Long.BYTES, 1 - (sizeP + sizeQ));
+        parent.putLong(rootQ * Long.BYTES, rootP + 1);
+        state.putByte(rootP, (byte) (state.getByte(rootP) | state.getByte(rootQ)));
+    }
+
+    // Validate if the row and column indices are within the grid bounds
+    private void validateIndices(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException("row and col indices are not valid!");
+        }
+    }
+
+    // A sparse file mapped as consecutive 1 GB shards, addressed by byte offset
+    private static final class Shards{
+        private static final int SHARD_BITS = 30;
+        private static final long SHARD_MASK = (1L << SHARD_BITS) - 1;
+
+        private final FileChannel channel;
+        private MappedByteBuffer[] shards;
+
+        Shards(Path directory, String name, long bytes) throws IOException{
+            channel = create(directory, name);
+            try {
+                int count = (int) ((bytes + SHARD_MASK) >>> SHARD_BITS);
+                shards = new MappedByteBuffer[count];
+                for(int i = 0; i < count; i ++){
+                    long start = (long) i << SHARD_BITS;
+                    long size = Math.min(1L << SHARD_BITS, bytes - start);
+                    shards[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+                }
+            } catch (IOException | RuntimeException e){
+                channel.close();
+                throw e;
+            }
+        }
+
+        // A new file under directory. SPARSE only takes effect when the open creates the file, so this
+        // opens with CREATE_NEW under a fresh random name, trying again on the rare name collision
+        private static FileChannel create(Path directory, String name) throws IOException{
+            while(true){
+                Path file = directory.resolve("percolation-" + name + "-"
+                        + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".bin");
+                try {
+                    return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.SPARSE,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                } catch (FileAlreadyExistsException e){
+                    // taken; draw another name
+                }
+            }
+        }
+
+        byte getByte(long offset){
+            return shards[(int) (offset >>> SHARD_BITS)].get((int) (offset & SHARD_MASK));
+        }
+
+        void putByte(long offset, byte value){
+            shards[(int) (offset >>> SHARD_BITS)].put((int) (offset & SHARD_MASK), value);
+        }
+
+        // shards are a multiple of 8 bytes long, so an aligned long never straddles two of them
+        long getLong(long offset){
+            return shards[(int) (offset >>> SHARD_BITS)].getLong((int) (offset & SHARD_MASK));
+        }
+
+        void putLong(long offset, long value){
+            shards[(int) (offset >>> SHARD_BITS)].putLong((int) (offset & SHARD_MASK), value);
+        }
+
+        // the mappings themselves are released once the buffers are garbage collected
+        void close() throws IOException{
+            shards = null;
+            channel.close();
+        }
+    }
+
+    //test client (optional)
+    public static void main(String[] args) throws IOException{
+        int n = args.length >= 1 ? Integer.parseInt(args[0]) : 3;
+        Path directory = args.length >= 2 ? Paths.get(args[1]) : Paths.get(System.getProperty("java.io.tmpdir"));
+
+        try(MappedPercolation percolation = new MappedPercolation(n, directory)){
+            for(int row = 1; row <= n; row ++){
+                percolation.open(row, 1);
+            }
+            percolation.open(n, 2);
+
+            System.out.println("Number of open sites: " + percolation.numberOfOpenSites());
+            System.out.println("Does it percolate? " + percolation.percolates());
+            System.out.println("Is site (" + n + ", 2) full? " + percolation.isFull(n, 2));
+            System.out.println("Is site (1, 2) full? " + percolation.isFull(1, 2));
+        }
+    }
+}
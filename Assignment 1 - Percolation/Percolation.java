@@ -1,7 +1,7 @@
 /**
  * Author: Dayvison Cordeiro
  * Date: 24-Mar-2024
- * Last Updated: 24-Mar-2024
+ * Last Updated: 18-Oct-2026
  *
  * Description: A program to estimate the value of the percolation threshold via Monte Carlo simulation.
  *
@@ -16,31 +16,29 @@
  * Score: 92/100
  */
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.Arrays;
 
 public class Percolation{
+    private static final byte OPEN = 1;
+    private static final byte CONNECTED_TOP = 2;
+    private static final byte CONNECTED_BOTTOM = 4;
+
     private final int n;
-    private final boolean[][] sites;
+    // OPEN for every open site; the CONNECTED_* bits are only kept up to date on union-find roots,
+    // which lets isFull ignore bottom-row connections (no backwash) without a second union-find
+    private final byte[] status;
     private int openSites;
-    private final WeightedQuickUnionUF uf;
-    private final int virtualTop;
-    private final int virtualBottom;
+    // merges the roots' status bits as it links them, and unlike WeightedQuickUnionUF can be cleared in place
+    private final UnionFind uf;
+    private boolean percolates;
 
     // creates n-by-n grid, with all sites initially blocked
     public Percolation(int n){
         if(n <= 0){ throw new IllegalArgumentException("Invalid grid size");}
         this.n = n;
-        sites = new boolean[n][n];
-        int size = n * n + 2;
-        uf = new WeightedQuickUnionUF(size);
-        virtualTop = 0;
-        virtualBottom = size - 1;
-        openSites = 0;
-
-        for(int i = 0; i < n; i++){
-            uf.union(getIndex(1, i + 1), virtualTop);
-            uf.union(getIndex(n, i + 1), virtualBottom);
-        }
+        status = new byte[n * n];
+        uf = new UnionFind(n * n, status);
+        reset();
     }
 
     // opens the site (row, col) if it is not open already
@@ -48,18 +46,25 @@ public class Percolation{
         validateIndices(row, col);
         if(!isOpen(row, col)){
             int index = getIndex(row, col);
+            byte flags = OPEN;
+            if(row == 1) flags |= CONNECTED_TOP;
+            if(row == n) flags |= CONNECTED_BOTTOM;
 
-            sites[row - 1][col - 1] = true;
+            status[index] = flags;
             openSites ++;
 
             unionNeighbors(row, col, index);
+            int root = uf.find(index);
+            if((status[root] & CONNECTED_TOP) != 0 && (status[root] & CONNECTED_BOTTOM) != 0){
+                percolates = true;
+            }
         }
     }
 
     // is the site (row, col) open?
     public boolean isOpen(int row, int col){
         validateIndices(row, col);
-        return sites[row - 1][col - 1];
+        return status[getIndex(row, col)] != 0;
     }
 
     // is the site (row, col) full?
@@ -67,11 +72,19 @@ public class Percolation{
         validateIndices(row, col);
         if(isOpen(row, col)){
             int index = getIndex(row, col);
-            return uf.find(index) == uf.find(virtualTop);
+            return (status[uf.find(index)] & CONNECTED_TOP) != 0;
         }
         return false;
     }
 
+    // blocks every site again so the instance can be reused for another trial, without allocating
+    public void reset(){
+        Arrays.fill(status, (byte) 0);
+        uf.reset();
+        openSites = 0;
+        percolates = false;
+    }
+
     // returns the number of open sites
     public int numberOfOpenSites(){
         return openSites;
@@ -79,7 +92,7 @@ public class Percolation{
 
     // does the system percolate?
     public boolean percolates(){
-        return uf.find(virtualBottom) == uf.find(virtualTop);
+        return percolates;
     }
 
     // Connect the site at row and column with its open neighbors
@@ -104,7 +117,7 @@ public class Percolation{
 
     // Transform the (row,col) in Union-Find index
     private int getIndex(int row, int col){
-        return (row - 1) * n + col;
+        return (row - 1) * n + (col - 1);
     }
 
     // Validate if the row and column indices are within the grid bounds
@@ -0,0 +1,225 @@
+/**
+ * Description: Optional counters for the percolation trial engine.
+ *
+ * Compilation: javac PercolationMetrics.java
+ * Execution: java -Dpercolation.metrics=true PercolationMetrics 256 2000
+ *
+ * Purpose of the program: Counts union and find calls and path-halving steps in UnionFind (so in
+ * Percolation, FlatPercolation and LatticePercolation alike), rejected samples in PercolationStats
+ * trials, and per-trial wall time and allocation, on the original PercolationStats(n, trials) loop as
+ * well as the seeded engine, so union-find degradation and sampler waste show up in a running sweep
+ * without a profiler.
+ *
+ * Metrics are off unless the JVM starts with -Dpercolation.metrics=true. The switch is a static final
+ * constant, so with metrics off the JIT folds every "if (PercolationMetrics.ENABLED)" guard away and the
+ * hot path is unchanged. Counters are LongAdders, which stay cheap when many workers update them.
+ * Read them with snapshot(), on a schedule with startReporting(), or over JMX after registerMBean().
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public final class PercolationMetrics {
+    // are metrics being collected?
+    public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    public static final String OBJECT_NAME = "percolation:type=Metrics";
+
+    private static final LongAdder UNIONS = new LongAdder();
+    private static final LongAdder FINDS = new LongAdder();
+    private static final LongAdder PATH_STEPS = new LongAdder();
+    private static final LongAdder SAMPLES = new LongAdder();
+    private static final LongAdder REJECTED_SAMPLES = new LongAdder();
+    private static final LongAdder TRIALS = new LongAdder();
+    private static final LongAdder TRIAL_NANOS = new LongAdder();
+    private static final LongAccumulator MAX_TRIAL_NANOS = new LongAccumulator(Math::max, 0);
+    private static final LongAdder TRIAL_ALLOCATED_BYTES = new LongAdder();
+
+    // only touched with metrics on: enabling allocation tracking costs every thread, not just ours
+    private static final com.sun.management.ThreadMXBean ALLOCATION = ENABLED ? allocationBean() : null;
+
+    private PercolationMetrics(){ }
+
+    // one union() call
+    static void union(){
+        UNIONS.increment();
+    }
+
+    // one find() call that walked the given number of parent links
+    static void find(int steps){
+        FINDS.increment();
+        if(steps > 0){
+            PATH_STEPS.add(steps);
+        }
+    }
+
+    // one trial's sampling: draws made, and how many of them opened nothing
+    static void samples(long drawn, long rejected){
+        SAMPLES.add(drawn);
+        REJECTED_SAMPLES.add(rejected);
+    }
+
+    // bytes allocated so far by the current thread, or -1 if metrics are off or the JVM cannot tell
+    static long allocatedBytes(){
+        return ALLOCATION != null ? ALLOCATION.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    // one finished trial; allocatedBefore is allocatedBytes() at its start
+    static void trial(long nanos, long allocatedBefore){
+        TRIALS.increment();
+        TRIAL_NANOS.add(nanos);
+        MAX_TRIAL_NANOS.accumulate(nanos);
+        if(allocatedBefore >= 0){
+            TRIAL_ALLOCATED_BYTES.add(allocatedBytes() - allocatedBefore);
+        }
+    }
+
+    // current values of every counter
+    public static Snapshot snapshot(){
+        return new Snapshot(UNIONS.sum(), FINDS.sum(), PATH_STEPS.sum(), SAMPLES.sum(), REJECTED_SAMPLES.sum(),
+                TRIALS.sum(), TRIAL_NANOS.sum(), MAX_TRIAL_NANOS.get(), TRIAL_ALLOCATED_BYTES.sum());
+    }
+
+    // zeroes every counter
+    public static void reset(){
+        UNIONS.reset();
+        FINDS.reset();
+        PATH_STEPS.reset();
+        SAMPLES.reset();
+        REJECTED_SAMPLES.reset();
+        TRIALS.reset();
+        TRIAL_NANOS.reset();
+        MAX_TRIAL_NANOS.reset();
+        TRIAL_ALLOCATED_BYTES.reset();
+    }
+
+    // hands a snapshot to the consumer every period on a daemon thread; shut the returned executor down to stop
+    public static ScheduledExecutorService startReporting(long period, TimeUnit unit, Consumer<Snapshot> consumer){
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "percolation-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> consumer.accept(snapshot()), period, period, unit);
+        return reporter;
+    }
+
+    // registers the counters with the platform MBean server under OBJECT_NAME
+    public static void registerMBean(){
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!ManagementFactory.getPlatformMBeanServer().isRegistered(name)){
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), name);
+            }
+        } catch (JMException e){
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean(){
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean){
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+            if(allocation.isThreadAllocatedMemorySupported()){
+                allocation.setThreadAllocatedMemoryEnabled(true);
+                return allocation;
+            }
+        }
+        return null;
+    }
+
+    // The counters at one point in time, plus the ratios worth watching
+    public static final class Snapshot {
+        public final long unions;
+        public final long finds;
+        public final long pathSteps;
+        public final long samples;
+        public final long rejectedSamples;
+        public final long trials;
+        public final long trialNanos;
+        public final long maxTrialNanos;
+        public final long trialAllocatedBytes;
+
+        Snapshot(long unions, long finds, long pathSteps, long samples, long rejectedSamples, long trials,
+                 long trialNanos, long maxTrialNanos, long trialAllocatedBytes){
+            this.unions = unions;
+            this.finds = finds;
+            this.pathSteps = pathSteps;
+            this.samples = samples;
+            this.rejectedSamples = rejectedSamples;
+            this.trials = trials;
+            this.trialNanos = trialNanos;
+            this.maxTrialNanos = maxTrialNanos;
+            this.trialAllocatedBytes = trialAllocatedBytes;
+        }
+
+        // parent links walked per find; creeping up means the trees are degrading
+        public double pathStepsPerFind(){
+            return finds == 0 ? 0.0 : (double) pathSteps / finds;
+        }
+
+        // share of sampler draws that opened nothing
+        public double rejectionRate(){
+            return samples == 0 ? 0.0 : (double) rejectedSamples / samples;
+        }
+
+        public double meanTrialMillis(){
+            return trials == 0 ? 0.0 : trialNanos / 1e6 / trials;
+        }
+
+        public double meanTrialAllocatedBytes(){
+            return trials == 0 ? 0.0 : (double) trialAllocatedBytes / trials;
+        }
+
+        @Override
+        public String toString(){
+            return String.format("trials=%d (mean %.3f ms, max %.3f ms, %.0f B allocated), unions=%d, finds=%d "
+                            + "(%.3f steps/find), samples=%d (%.1f%% rejected)",
+                    trials, meanTrialMillis(), maxTrialNanos / 1e6, meanTrialAllocatedBytes(), unions, finds,
+                    pathStepsPerFind(), samples, 100 * rejectionRate());
+        }
+    }
+
+    private static final class MXBean implements PercolationMetricsMXBean {
+        public long getUnions(){ return UNIONS.sum(); }
+        public long getFinds(){ return FINDS.sum(); }
+        public long getPathSteps(){ return PATH_STEPS.sum(); }
+        public double getPathStepsPerFind(){ return snapshot().pathStepsPerFind(); }
+        public long getSamples(){ return SAMPLES.sum(); }
+        public long getRejectedSamples(){ return REJECTED_SAMPLES.sum(); }
+        public double getRejectionRate(){ return snapshot().rejectionRate(); }
+        public long getTrials(){ return TRIALS.sum(); }
+        public double getMeanTrialMillis(){ return snapshot().meanTrialMillis(); }
+        public double getMaxTrialMillis(){ return MAX_TRIAL_NANOS.get() / 1e6; }
+        public double getMeanTrialAllocatedBytes(){ return snapshot().meanTrialAllocatedBytes(); }
+        public boolean isEnabled(){ return ENABLED; }
+        public void reset(){ PercolationMetrics.reset(); }
+    }
+
+    // test client: run a sweep and report the counters every second
+    public static void main(String[] args){
+        int n = Integer.parseInt(args[0]);
+        int trials = Integer.parseInt(args[1]);
+        if(!ENABLED){
+            System.out.println("Run with -Dpercolation.metrics=true to collect metrics");
+        }
+        registerMBean();
+        ScheduledExecutorService reporter = startReporting(1, TimeUnit.SECONDS, System.out::println);
+        for(PercolationStats.Sampler sampler : PercolationStats.Sampler.values()){
+            reset();
+            PercolationStats stats = new PercolationStats(n, trials, 0L, Runtime.getRuntime().availableProcessors(),
+                    sampler, true);
+            System.out.println(sampler + ": mean = " + stats.mean() + "; " + snapshot());
+        }
+        reporter.shutdownNow();
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Description: JMX view of PercolationMetrics, registered by PercolationMetrics.registerMBean().
+ */
+
+public interface PercolationMetricsMXBean {
+    long getUnions();
+
+    long getFinds();
+
+    long getPathSteps();
+
+    double getPathStepsPerFind();
+
+    long getSamples();
+
+    long getRejectedSamples();
+
+    double getRejectionRate();
+
+    long getTrials();
+
+    double getMeanTrialMillis();
+
+    double getMaxTrialMillis();
+
+    double getMeanTrialAllocatedBytes();
+
+    boolean isEnabled();
+
+    void reset();
+}
@@ -1,12 +1,15 @@
 /**
  * Author: Dayvison Cordeiro
  * Date: 24-Mar-2024
- * Last Updated: 24-Mar-2024
+ * Last Updated: 18-Oct-2026
  *
  * Description: A program to estimate the value of the percolation threshold via Monte Carlo simulation.
  *
  * Compilation: javac -cp path_to_algs4 PercolationStats.java
  * Execution: java-algs4 PercolationStats 200 100
+ *            java-algs4 PercolationStats 200 100 42 8   (seeded, 8 threads)
+ *            java-algs4 PercolationStats 200 100 42 8 PERMUTATION pooled
+ *            java-algs4 PercolationStats 200 100000 0.001   (until the 95% CI half-width is 0.001)
  *
  * Purpose of the program: This program implements a Monte Carlo simulation to estimate the percolation threshold
  * in a given grid using the Percolation class.
@@ -16,14 +19,27 @@
  * Score: 92/100
  */
 
+import java.util.SplittableRandom;
+
 import edu.princeton.cs.algs4.StdRandom;
-import edu.princeton.cs.algs4.StdStats;
 
 public class PercolationStats {
     private static final double CONFIDENCE_95 = 1.96;
-    private final double[] results;
+    // the stopping rule is not trusted on fewer trials than this
+    private static final int MIN_TRIALS = 30;
+    private final RunningStats results = new RunningStats();
     private final int n;
-    private final int trials;
+    private final Lattice lattice;
+    private final LatticePercolation.Kind kind;
+    private final Sampler sampler;
+
+    // how a trial picks the next site (or bond) to open
+    public enum Sampler {
+        // draw random slots, skipping those that are already open
+        REJECTION,
+        // walk a Fisher-Yates shuffle of all slots; every draw opens something new
+        PERMUTATION
+    }
 
 
     // perform independent trials on an n-by-n grid
@@ -32,51 +48,251 @@ public class PercolationStats {
             throw new IllegalArgumentException("n or trials must be grater than 0");
         }
         this.n = n;
-        this.trials = trials;
-        results = new double[trials];
+        this.lattice = null;
+        this.kind = LatticePercolation.Kind.SITE;
+        this.sampler = Sampler.REJECTION;
 
         for(int i = 0; i < trials; i ++){
-            results[i] = runTrial(this.n);
+            long start = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+            long allocated = PercolationMetrics.ENABLED ? PercolationMetrics.allocatedBytes() : 0L;
+
+            results.add(runTrial(this.n));
+
+            if(PercolationMetrics.ENABLED){
+                PercolationMetrics.trial(System.nanoTime() - start, allocated);
+            }
         }
     }
 
+    // perform independent trials on an n-by-n grid spread over the given number of threads.
+    // Trials run in fixed blocks, each drawing from its own SplittableRandom stream split off the seed
+    // in block order, and block statistics are merged in that order, so the results depend only on
+    // (n, trials, seed) and not on the number of threads.
+    public PercolationStats(int n, int trials, long seed, int threads){
+        this(n, trials, seed, threads, Sampler.REJECTION);
+    }
+
+    // as above, choosing how each trial samples the sites it opens
+    public PercolationStats(int n, int trials, long seed, int threads, Sampler sampler){
+        this(n, trials, seed, threads, sampler, false);
+    }
+
+    // as above; when pooled, each worker allocates one grid and resets it between trials instead of
+    // building a new one per trial, so a sweep allocates next to nothing once the workers are up.
+    // Pooling does not change the results for a given seed.
+    public PercolationStats(int n, int trials, long seed, int threads, Sampler sampler, boolean pooled){
+        this(Lattice.square(n), LatticePercolation.Kind.SITE, trials, seed, threads, sampler, pooled);
+    }
+
+    // the same engine for site or bond percolation on any lattice
+    public PercolationStats(Lattice lattice, LatticePercolation.Kind kind, int trials, long seed, int threads,
+                            Sampler sampler, boolean pooled){
+        this(lattice, kind, trials, seed, threads, sampler, pooled, 0.0);
+    }
+
+    // run pooled PERMUTATION trials until the 95% confidence interval half-width drops to epsilon
+    // or maxTrials have run, whichever comes first; trials() tells how many it took
+    public static PercolationStats untilHalfWidth(int n, double epsilon, int maxTrials, long seed, int threads){
+        return untilHalfWidth(Lattice.square(n), LatticePercolation.Kind.SITE, epsilon, maxTrials, seed, threads);
+    }
+
+    // as above, for site or bond percolation on any lattice
+    public static PercolationStats untilHalfWidth(Lattice lattice, LatticePercolation.Kind kind, double epsilon,
+                                                  int maxTrials, long seed, int threads){
+        if(!(epsilon > 0)){
+            throw new IllegalArgumentException("epsilon must be grater than 0");
+        }
+        return new PercolationStats(lattice, kind, maxTrials, seed, threads, Sampler.PERMUTATION, true, epsilon);
+    }
+
+    // shared by the seeded constructors; epsilon <= 0 runs all trials
+    private PercolationStats(Lattice lattice, LatticePercolation.Kind kind, int trials, long seed, int threads,
+                             Sampler sampler, boolean pooled, double epsilon){
+        if(lattice == null || kind == null){
+            throw new IllegalArgumentException("lattice and kind cannot be null");
+        }
+        if(0 >= trials){
+            throw new IllegalArgumentException("n or trials must be grater than 0");
+        }
+        if(0 >= threads){
+            throw new IllegalArgumentException("threads must be grater than 0");
+        }
+        if(sampler == null){
+            throw new IllegalArgumentException("sampler cannot be null");
+        }
+        this.n = lattice.size();
+        this.lattice = lattice;
+        this.kind = kind;
+        this.sampler = sampler;
+
+        runBlocks(new SplittableRandom(seed), trials, Math.min(threads, TrialBlocks.count(trials)), pooled, epsilon);
+    }
+
+    // number of trials the statistics are based on
+    public int trials(){
+        return (int) results.count();
+    }
+
     // sample mean of percolation threshold
     public double mean(){
-        return StdStats.mean(results);
+        return results.mean();
     }
 
     // sample standard deviation of percolation threshold
     public double stddev(){
-        return StdStats.stddev(results);
+        return results.stddev();
     }
 
     // low endpoint of 95% confidence interval
     public double confidenceLo(){
-        return mean() - (CONFIDENCE_95 * stddev() / Math.sqrt(this.trials));
+        return mean() - halfWidth();
     }
 
     // high endpoint of 95% confidence interval
     public double confidenceHi(){
-        return mean() + (CONFIDENCE_95 * stddev() / Math.sqrt(this.trials));
+        return mean() + halfWidth();
+    }
+
+    // half-width of the 95% confidence interval
+    private double halfWidth(){
+        return CONFIDENCE_95 * results.stddev() / Math.sqrt(results.count());
     }
 
     private double runTrial(int n){
         Percolation percolation = new Percolation(n);
+        long drawn = 0;
         while (!percolation.percolates()){
             int row = StdRandom.uniformInt(1, n + 1);
             int col = StdRandom.uniformInt(1, n + 1);
             if (!percolation.isOpen(row, col)){
                 percolation.open(row,col);
             }
+            drawn ++;
+        }
+        if(PercolationMetrics.ENABLED){
+            PercolationMetrics.samples(drawn, drawn - percolation.numberOfOpenSites());
         }
         return (double) percolation.numberOfOpenSites() / (this.n * this.n);
     }
 
+    // same as runTrial(n), but drawing from the trial's own random stream into a cleared grid
+    private double runTrial(TrialGrid trialGrid, SplittableRandom random){
+        if(sampler == Sampler.PERMUTATION){
+            return runPermutationTrial(trialGrid, random);
+        }
+        LatticePercolation percolation = trialGrid.grid;
+        int slots = percolation.slots();
+        long drawn = 0;
+        while (!percolation.percolates()){
+            percolation.open(random.nextInt(slots));
+            drawn ++;
+        }
+        if(PercolationMetrics.ENABLED){
+            PercolationMetrics.samples(drawn, drawn - percolation.numberOfOpenElements());
+        }
+        return (double) percolation.numberOfOpenElements() / percolation.elements();
+    }
+
+    // Open slots in the order of a Fisher-Yates shuffle of all of them, shuffling one step per draw, so no
+    // draw lands on an open element. Each prefix is a uniformly random set of elements, exactly the
+    // distribution rejection sampling produces; bond slots that hold no bond open nothing and are skipped.
+    private double runPermutationTrial(TrialGrid trialGrid, SplittableRandom random){
+        LatticePercolation percolation = trialGrid.grid;
+        openShuffled(percolation, trialGrid.order, random, false, null);
+        return (double) percolation.numberOfOpenElements() / percolation.elements();
+    }
+
+    // The permutation trial loop: opens slots of a cleared grid in shuffled order until it percolates, or
+    // through every slot when toEnd is set, running afterOpen (if given) each time an element opens.
+    static void openShuffled(LatticePercolation percolation, int[] order, SplittableRandom random, boolean toEnd,
+                             Runnable afterOpen){
+        int slots = order.length;
+        // restart from the identity so a trial's draws do not depend on which trials the worker ran before
+        for(int i = 0; i < slots; i ++){
+            order[i] = i;
+        }
+        long drawn = 0;
+        for(int k = 0; k < slots && (toEnd || !percolation.percolates()); k ++){
+            int j = random.nextInt(k, slots);
+            int slot = order[j];
+            order[j] = order[k];
+            order[k] = slot;
+            if(percolation.open(slot) && afterOpen != null){
+                afterOpen.run();
+            }
+            drawn ++;
+        }
+        if(PercolationMetrics.ENABLED){
+            PercolationMetrics.samples(drawn, drawn - percolation.numberOfOpenElements());
+        }
+    }
+
+    // The grid and shuffle buffer a trial runs on; one per trial, or one per worker when pooled
+    private static final class TrialGrid {
+        private final LatticePercolation grid;
+        private final int[] order;
+
+        TrialGrid(Lattice lattice, LatticePercolation.Kind kind, Sampler sampler){
+            grid = new LatticePercolation(lattice, kind);
+            order = sampler == Sampler.PERMUTATION ? new int[grid.slots()] : null;
+        }
+
+        TrialGrid reset(){
+            grid.reset();
+            return this;
+        }
+    }
+
+    // Run the trials through TrialBlocks, merging the block statistics in block order. With a positive
+    // epsilon, blocks go a round of one per thread at a time and the run stops at the first block after
+    // which the interval is narrow enough.
+    private void runBlocks(SplittableRandom root, int trials, int threads, boolean pooled, double epsilon){
+        ThreadLocal<TrialGrid> pooledGrids = ThreadLocal.withInitial(() -> new TrialGrid(lattice, kind, sampler));
+        int blocksPerRound = epsilon > 0 ? threads : TrialBlocks.count(trials);
+        TrialBlocks.run(root, trials, threads, blocksPerRound,
+                (random, size) -> runBlock(random, size, pooled ? pooledGrids : null),
+                block -> {
+                    results.merge(block);
+                    return epsilon > 0 && results.count() >= MIN_TRIALS && halfWidth() <= epsilon;
+                });
+    }
+
+    // Run one block of trials back to back on the block's random stream
+    private RunningStats runBlock(SplittableRandom random, int size, ThreadLocal<TrialGrid> pooledGrids){
+        RunningStats block = new RunningStats();
+        for(int i = 0; i < size; i ++){
+            long start = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+            long allocated = PercolationMetrics.ENABLED ? PercolationMetrics.allocatedBytes() : 0L;
+
+            TrialGrid trialGrid = pooledGrids != null ? pooledGrids.get().reset() : new TrialGrid(lattice, kind, sampler);
+            block.add(runTrial(trialGrid, random));
+
+            if(PercolationMetrics.ENABLED){
+                PercolationMetrics.trial(System.nanoTime() - start, allocated);
+            }
+        }
+        return block;
+    }
+
     // test client
     public static void main(String[] args){
         int n = Integer.parseInt(args[0]);
         int trials = Integer.parseInt(args[1]);
-        PercolationStats stats = new PercolationStats(n, trials);
+        PercolationStats stats;
+        if(args.length >= 4){
+            long seed = Long.parseLong(args[2]);
+            int threads = Integer.parseInt(args[3]);
+            Sampler sampler = args.length >= 5 ? Sampler.valueOf(args[4]) : Sampler.REJECTION;
+            boolean pooled = args.length >= 6 && args[5].equals("pooled");
+            stats = new PercolationStats(n, trials, seed, threads, sampler, pooled);
+        } else if(args.length == 3){
+            // trials is the cap, args[2] the target half-width of the confidence interval
+            stats = PercolationStats.untilHalfWidth(n, Double.parseDouble(args[2]), trials, 0L,
+                    Runtime.getRuntime().availableProcessors());
+        } else {
+            stats = new PercolationStats(n, trials);
+        }
+        System.out.println("trials = " + stats.trials());
         System.out.println("mean = " + stats.mean());
         System.out.println("stddev = " + stats.stddev());
         System.out.println("95% confidence interval = [" + stats.confidenceLo() + ", " + stats.confidenceHi() + "]");
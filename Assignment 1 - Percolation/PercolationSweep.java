@@ -0,0 +1,167 @@
+/**
+ * Description: Whole-curve percolation sweeps with the Newman-Ziff algorithm.
+ *
+ * Compilation: javac PercolationSweep.java
+ * Execution: java PercolationSweep square 128 SITE 1000 0.55 0.65 0.01
+ *
+ * Purpose of the program: Instead of stopping each trial at the threshold, every trial opens all M sites
+ * (or bonds) of the lattice in random order and records the observables after each one, giving them as a
+ * function of the occupation number k. Averaged over trials these are the microcanonical estimates; the
+ * value at any p follows by convolving with the binomial distribution of k, so one set of trials yields the
+ * whole curve instead of one experiment per p.
+ *
+ * Observables: the probability that a cluster spans top to bottom, and the mean cluster size
+ * sum(s^2) / sum(s) over all clusters (the expected size of the cluster of a random site).
+ * Per-k sums are kept as exact longs, so results do not depend on how trials are split across threads;
+ * the cluster sums stay exact while trials * sites^2 is below 2^63.
+ */
+
+import java.util.SplittableRandom;
+
+public class PercolationSweep {
+    // binomial weights below this fraction of the peak weight are dropped
+    private static final double NEGLIGIBLE = 1e-16;
+
+    private final Lattice lattice;
+    private final LatticePercolation.Kind kind;
+    private final int trials;
+    private final int elements;
+    private final long[] spanning;          // trials spanning after k elements opened
+    private final long[] clusterSquares;    // sum over trials of sum(s^2) after k elements opened
+
+    // run trials full sweeps over the lattice spread over the given number of threads
+    public PercolationSweep(Lattice lattice, LatticePercolation.Kind kind, int trials, long seed, int threads){
+        if(lattice == null || kind == null){
+            throw new IllegalArgumentException("lattice and kind cannot be null");
+        }
+        if(0 >= trials || 0 >= threads){
+            throw new IllegalArgumentException("trials and threads must be grater than 0");
+        }
+        this.lattice = lattice;
+        this.kind = kind;
+        this.trials = trials;
+        this.elements = new LatticePercolation(lattice, kind).elements();
+        spanning = new long[elements + 1];
+        clusterSquares = new long[elements + 1];
+
+        runParallel(new SplittableRandom(seed), threads);
+    }
+
+    // number of sites (SITE) or bonds (BOND) a trial opens
+    public int elements(){
+        return elements;
+    }
+
+    // fraction of trials spanning once k elements are open
+    public double spanningProbability(int k){
+        return (double) spanning[validate(k)] / trials;
+    }
+
+    // mean cluster size once k elements are open
+    public double meanClusterSize(int k){
+        int occupied = kind == LatticePercolation.Kind.SITE ? validate(k) : lattice.sites();
+        return occupied == 0 ? 0.0 : (double) clusterSquares[validate(k)] / trials / occupied;
+    }
+
+    // probability that the lattice spans when each element is open with probability p
+    public double spanningProbability(double p){
+        return convolve(p, true);
+    }
+
+    // mean cluster size when each element is open with probability p
+    public double meanClusterSize(double p){
+        return convolve(p, false);
+    }
+
+    // Sum the microcanonical values against Binomial(elements, p), walking out from the mode
+    // with the ratio of consecutive weights until they become negligible
+    private double convolve(double p, boolean span){
+        if(!(p >= 0 && p <= 1)){
+            throw new IllegalArgumentException("p must be in [0, 1]");
+        }
+        if(p == 0 || p == 1){
+            int k = p == 0 ? 0 : elements;
+            return span ? spanningProbability(k) : meanClusterSize(k);
+        }
+        int mode = (int) Math.min(elements, Math.floor((elements + 1) * p));
+        double odds = p / (1 - p);
+        double total = 1.0;
+        double sum = span ? spanningProbability(mode) : meanClusterSize(mode);
+
+        double weight = 1.0;
+        for(int k = mode + 1; k <= elements && weight > NEGLIGIBLE; k ++){
+            weight *= (double) (elements - k + 1) / k * odds;
+            total += weight;
+            sum += weight * (span ? spanningProbability(k) : meanClusterSize(k));
+        }
+        weight = 1.0;
+        for(int k = mode - 1; k >= 0 && weight > NEGLIGIBLE; k --){
+            weight *= (double) (k + 1) / (elements - k) / odds;
+            total += weight;
+            sum += weight * (span ? spanningProbability(k) : meanClusterSize(k));
+        }
+        return sum / total;
+    }
+
+    private int validate(int k){
+        if(k < 0 || k > elements){
+            throw new IllegalArgumentException("k is not valid!");
+        }
+        return k;
+    }
+
+    // Sweep blocks of trials through TrialBlocks, a round of one block per thread at a time, each worker
+    // reusing its own grid; the blocks' integer sums are added in as they come back
+    private void runParallel(SplittableRandom root, int threads){
+        ThreadLocal<LatticePercolation> grids = ThreadLocal.withInitial(() -> new LatticePercolation(lattice, kind));
+        ThreadLocal<int[]> orders = ThreadLocal.withInitial(() -> new int[grids.get().slots()]);
+        TrialBlocks.run(root, trials, threads, threads,
+                (random, size) -> sweepBlock(grids.get(), orders.get(), random, size),
+                block -> {
+                    for(int k = 0; k <= elements; k ++){
+                        spanning[k] += block[0][k];
+                        clusterSquares[k] += block[1][k];
+                    }
+                    return false;
+                });
+    }
+
+    // Sweep size trials on the grid; returns the block's spanning counts and cluster sums per k
+    private long[][] sweepBlock(LatticePercolation grid, int[] order, SplittableRandom random, int size){
+        long[] span = new long[elements + 1];
+        long[] squares = new long[elements + 1];
+        for(int i = 0; i < size; i ++){
+            grid.reset();
+            record(grid, span, squares);
+            PercolationStats.openShuffled(grid, order, random, true, () -> record(grid, span, squares));
+        }
+        return new long[][] { span, squares };
+    }
+
+    // add the grid's observables at its current occupation number
+    private static void record(LatticePercolation grid, long[] span, long[] squares){
+        int k = grid.numberOfOpenElements();
+        if(grid.percolates()){
+            span[k] ++;
+        }
+        squares[k] += grid.clusterSquares();
+    }
+
+    // test client: print the curves on a grid of p values
+    public static void main(String[] args){
+        Lattice lattice = Lattice.of(args[0], Integer.parseInt(args[1]));
+        LatticePercolation.Kind kind = LatticePercolation.Kind.valueOf(args[2]);
+        int trials = Integer.parseInt(args[3]);
+        double from = Double.parseDouble(args[4]);
+        double to = Double.parseDouble(args[5]);
+        double step = Double.parseDouble(args[6]);
+
+        PercolationSweep sweep = new PercolationSweep(lattice, kind, trials, 0L,
+                Runtime.getRuntime().availableProcessors());
+        System.out.println(kind + " percolation on " + lattice + ", " + trials + " sweeps");
+        System.out.println("p\tP(span)\tmean cluster size");
+        for(double p = from; p <= to + step / 2; p += step){
+            System.out.printf("%.4f\t%.6f\t%.3f%n", p, sweep.spanningProbability(p), sweep.meanClusterSize(p));
+        }
+    }
+}
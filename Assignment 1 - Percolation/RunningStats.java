@@ -0,0 +1,77 @@
+/**
+ * Description: Streaming mean and standard deviation (Welford's online algorithm).
+ *
+ * Compilation: javac RunningStats.java
+ * Execution: java RunningStats
+ *
+ * Purpose of the program: Accumulates samples in O(1) memory with O(1) queries, and merges two
+ * accumulators exactly (Chan et al.), so each worker can keep its own and combine them at the end.
+ */
+
+public class RunningStats {
+    private long count;
+    private double mean;
+    private double m2;      // sum of squared deviations from the current mean
+
+    // adds one sample
+    public void add(double x){
+        count ++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    // folds every sample seen by that accumulator into this one
+    public void merge(RunningStats that){
+        if(that.count == 0){
+            return;
+        }
+        if(count == 0){
+            count = that.count;
+            mean = that.mean;
+            m2 = that.m2;
+            return;
+        }
+        long total = count + that.count;
+        double delta = that.mean - mean;
+        mean += delta * that.count / total;
+        m2 += that.m2 + delta * delta * ((double) count * that.count / total);
+        count = total;
+    }
+
+    // number of samples added so far
+    public long count(){
+        return count;
+    }
+
+    // sample mean, NaN when empty
+    public double mean(){
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // sample variance (n - 1 in the denominator), NaN with fewer than two samples
+    public double variance(){
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    // sample standard deviation, NaN with fewer than two samples
+    public double stddev(){
+        return Math.sqrt(variance());
+    }
+
+    // test client
+    public static void main(String[] args){
+        RunningStats all = new RunningStats();
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        double[] samples = { 2, 4, 4, 4, 5, 5, 7, 9 };
+        for(int i = 0; i < samples.length; i ++){
+            all.add(samples[i]);
+            (i < 3 ? left : right).add(samples[i]);
+        }
+        left.merge(right);
+
+        System.out.println("mean = " + all.mean() + " (merged " + left.mean() + ")");
+        System.out.println("stddev = " + all.stddev() + " (merged " + left.stddev() + ")");
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Description: The block-parallel trial runner shared by PercolationStats and PercolationSweep.
+ *
+ * Purpose of the program: Trials run in blocks of BLOCK_SIZE. Block b draws from the b-th stream split off
+ * the root in block order, and block results are merged on the calling thread in block order, so what a
+ * seeded run computes depends only on the seed and the trial count, never on the number of threads.
+ * Blocks are submitted a round at a time; a merge step can stop the run after any block, dropping the
+ * rest of that round, so where a run stops does not depend on threads either.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+final class TrialBlocks{
+    // trials per block; fixed so results do not depend on the thread count
+    static final int BLOCK_SIZE = 32;
+
+    // the work of one block: size trials drawing from the block's own stream
+    interface Body<R>{
+        R run(SplittableRandom random, int size);
+    }
+
+    private TrialBlocks(){ }
+
+    // number of blocks trials are split into
+    static int count(int trials){
+        return (trials + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    // Run every block of trials on up to threads workers, blocksPerRound blocks at a time, handing each
+    // result to merge in block order; merge returns true to stop early
+    static <R> void run(SplittableRandom root, int trials, int threads, int blocksPerRound, Body<R> body,
+                        Predicate<R> merge){
+        int blocks = count(trials);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, blocks)));
+        try {
+            for(int first = 0; first < blocks; first += blocksPerRound){
+                int roundSize = Math.min(blocksPerRound, blocks - first);
+                List<Callable<R>> tasks = new ArrayList<>(roundSize);
+                for(int b = first; b < first + roundSize; b ++){
+                    SplittableRandom random = root.split();
+                    int size = Math.min(BLOCK_SIZE, trials - b * BLOCK_SIZE);
+                    tasks.add(() -> body.run(random, size));
+                }
+
+                for(Future<R> block : pool.invokeAll(tasks)){
+                    if(merge.test(block.get())){
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running trials", e);
+        } catch (ExecutionException e){
+            throw new IllegalStateException("Trial failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
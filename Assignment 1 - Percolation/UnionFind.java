@@ -0,0 +1,79 @@
+/**
+ * Description: The weighted union-find shared by the in-memory percolation grids.
+ *
+ * Purpose of the program: One int[] where a non-root holds its parent and a root holds the negated size
+ * of its tree; find halves the path on the way up and union links the smaller tree under the larger.
+ * The grid's byte[] of site flags is passed in, and a link ORs the absorbed root's flags into the
+ * surviving root, so "connected to top/bottom" bits stay correct on roots without virtual sites.
+ * reset() clears it in place, so a grid can be reused across trials without allocating.
+ * Nothing is bounds-checked here; the grids validate indices at their public API.
+ */
+
+import java.util.Arrays;
+
+final class UnionFind{
+    private final int[] parent;
+    private final byte[] flags;
+
+    // n singleton sets whose roots carry flags[0..n-1]
+    UnionFind(int n, byte[] flags){
+        parent = new int[n];
+        this.flags = flags;
+        reset();
+    }
+
+    // back to n singleton sets; the flags are the caller's to clear
+    void reset(){
+        Arrays.fill(parent, -1);
+    }
+
+    // Root of p, halving the path on the way up
+    int find(int p){
+        int steps = 0;
+        int q;
+        while((q = parent[p]) >= 0){
+            int r = parent[q];
+            if(r < 0){
+                p = q;
+                steps ++;
+                break;
+            }
+            parent[p] = r;
+            p = r;
+            steps += 2;
+        }
+        if(PercolationMetrics.ENABLED){
+            PercolationMetrics.find(steps);
+        }
+        return p;
+    }
+
+    // number of elements in the set whose root is root
+    int size(int root){
+        return -parent[root];
+    }
+
+    // Merge the sets of p and q and return the root of the result
+    int union(int p, int q){
+        if(PercolationMetrics.ENABLED){
+            PercolationMetrics.union();
+        }
+        int rootP = find(p);
+        int rootQ = find(q);
+        return rootP == rootQ ? rootP : link(rootP, rootQ);
+    }
+
+    // Link two distinct roots, the smaller tree under the larger; roots hold -size and the union of both
+    // roots' flags. Returns the surviving root
+    int link(int rootP, int rootQ){
+        if(parent[rootP] > parent[rootQ]){
+            int t = rootP;
+            rootP = rootQ;
+            rootQ = t;
+        }
+        parent[rootP] += parent[rootQ];
+        parent[rootQ] = rootP;
+        flags[rootP] |= flags[rootQ];
+        return rootP;
+    }
+}
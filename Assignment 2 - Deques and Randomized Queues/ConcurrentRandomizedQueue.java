@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe randomized queue split into independently locked stripes.
+ *
+ * Each stripe is a small RandomizedQueue-style array behind its own lock. A thread enqueues into the
+ * stripe its id hashes to, moving on to the next free stripe if that one is busy, so producers rarely
+ * meet. dequeue and sample choose a stripe with probability proportional to its size and then a
+ * uniform item inside it, so with no concurrent updates every item is equally likely; under
+ * concurrent updates the weights are one snapshot of all stripe sizes taken just before the choice.
+ * Random numbers come from ThreadLocalRandom, so threads never share generator state.
+ */
+public class ConcurrentRandomizedQueue<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 8;
+
+    private final Stripe[] stripes;
+    private final int mask;
+    // per-thread buffer for the stripe sizes take() weighs by, so dequeue and sample do not allocate
+    private final ThreadLocal<int[]> sizeSnapshot;
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        Object[] items = new Object[MIN_CAPACITY];
+        volatile int size;  // written under lock, read without it for weighting
+    }
+
+    // Construct an empty queue with a stripe count suited to this machine
+    public ConcurrentRandomizedQueue() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // Construct an empty queue with at least the given number of stripes (rounded up to a power of two)
+    public ConcurrentRandomizedQueue(int stripes) {
+        if (stripes <= 0 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes must be between 1 and 65536");
+        }
+        int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        mask = count - 1;
+        sizeSnapshot = ThreadLocal.withInitial(() -> new int[count]);
+    }
+
+    // Is the queue empty? A snapshot when other threads are active
+    public boolean isEmpty() {
+        for (Stripe stripe : stripes) {
+            if (stripe.size > 0) return false;
+        }
+        return true;
+    }
+
+    // Return the number of items on the queue; a snapshot when other threads are active
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.size;
+        }
+        return total;
+    }
+
+    // Add the item
+    public void enqueue(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot add null item to the queue");
+        }
+        int home = homeStripe();
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[(home + i) & mask];
+            if (stripe.lock.tryLock()) {
+                try {
+                    add(stripe, item);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+        // every stripe was busy: wait for our own
+        Stripe stripe = stripes[home];
+        stripe.lock.lock();
+        try {
+            add(stripe, item);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Remove and return a random item
+    public Item dequeue() {
+        Item item = poll();
+        if (item == null) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return item;
+    }
+
+    // Remove and return a random item, or null if the queue is empty
+    public Item poll() {
+        return take(true);
+    }
+
+    // Return a random item (but do not remove it)
+    public Item sample() {
+        Item item = take(false);
+        if (item == null) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return item;
+    }
+
+    // Return an iterator in random order over a snapshot of the items; later updates are not seen
+    public Iterator<Item> iterator() {
+        List<Item> snapshot = new ArrayList<>(size());
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (int i = 0; i < stripe.size; i++) {
+                    snapshot.add(itemAt(stripe, i));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        Collections.shuffle(snapshot, ThreadLocalRandom.current());
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    // Pick a stripe weighted by size, then a uniform item in it; retry if the stripe emptied meanwhile
+    private Item take(boolean remove) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] sizes = sizeSnapshot.get();
+        while (true) {
+            // read every size once, so the total and the walk below agree
+            int total = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = stripes[i].size;
+                total += sizes[i];
+            }
+            if (total == 0) {
+                return null;
+            }
+            int r = random.nextInt(total);
+            int s = 0;
+            while (r >= sizes[s]) {
+                r -= sizes[s];
+                s++;
+            }
+            Stripe stripe = stripes[s];
+            stripe.lock.lock();
+            try {
+                int n = stripe.size;
+                if (n == 0) {
+                    continue;
+                }
+                int index = random.nextInt(n);
+                Item item = itemAt(stripe, index);
+                if (remove) {
+                    stripe.items[index] = stripe.items[n - 1];
+                    stripe.items[n - 1] = null;
+                    stripe.size = n - 1;
+                    if (n - 1 > 0 && n - 1 == stripe.items.length / 4 && stripe.items.length > MIN_CAPACITY) {
+                        resize(stripe, stripe.items.length / 2);
+                    }
+                }
+                return item;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the stripe's lock
+    private static void add(Stripe stripe, Object item) {
+        int n = stripe.size;
+        if (n == stripe.items.length) {
+            resize(stripe, n * 2);
+        }
+        stripe.items[n] = item;
+        stripe.size = n + 1;
+    }
+
+    private static void resize(Stripe stripe, int capacity) {
+        Object[] copy = new Object[capacity];
+        System.arraycopy(stripe.items, 0, copy, 0, stripe.size);
+        stripe.items = copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Item itemAt(Stripe stripe, int index) {
+        return (Item) stripe.items[index];
+    }
+
+    // Spread thread ids over the stripes
+    private int homeStripe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Unit testing: concurrent producers and consumers, then weighting across unevenly filled stripes
+    public static void main(String[] args) throws InterruptedException {
+        int threads = 8;
+        int perThread = 100_000;
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>();
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    queue.enqueue(base + i);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (queue.size() != threads * perThread) {
+            System.out.println("Error: size() returned " + queue.size() + " after concurrent enqueues");
+        }
+
+        AtomicInteger duplicates = new AtomicInteger();
+        boolean[] seen = new boolean[threads * perThread];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                Integer item;
+                while ((item = queue.poll()) != null) {
+                    synchronized (seen) {
+                        if (seen[item]) duplicates.incrementAndGet();
+                        seen[item] = true;
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        int missing = 0;
+        for (boolean s : seen) {
+            if (!s) missing++;
+        }
+        if (duplicates.get() != 0 || missing != 0 || !queue.isEmpty()) {
+            System.out.println("Error: " + duplicates.get() + " items dequeued twice, " + missing + " lost");
+        }
+
+        // One item in one stripe, nine in another: the lone item must still come out 10% of the time
+        ConcurrentRandomizedQueue<Integer> uneven = new ConcurrentRandomizedQueue<>(2);
+        add(uneven.stripes[0], 0);
+        for (int i = 1; i < 10; i++) {
+            add(uneven.stripes[1], i);
+        }
+        int trials = 100_000;
+        int hits = 0;
+        for (int i = 0; i < trials; i++) {
+            if (uneven.sample() == 0) hits++;
+        }
+        if (Math.abs(hits - trials / 10) > trials / 100) {
+            System.out.println("Error: lone item sampled " + hits + " times in " + trials + ", expected about " + trials / 10);
+        }
+
+        try {
+            queue.dequeue();
+            System.out.println("Error: dequeue did not throw NoSuchElementException on empty queue");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        try {
+            queue.enqueue(null);
+            System.out.println("Error: enqueue did not throw IllegalArgumentException for null argument");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        System.out.println("All tests passed");
+    }
+}
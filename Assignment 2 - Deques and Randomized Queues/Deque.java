@@ -1,5 +1,13 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Deque<Item> implements Iterable<Item> {
     private Node head;
@@ -88,11 +96,142 @@ public class Deque<Item> implements Iterable<Item> {
         return item;
     }
 
+    // Add the items to the front, keeping their order: items[0] becomes the first item
+    public void addAllFirst(Item[] items) {
+        if (items == null) throw new IllegalArgumentException("Items cannot be null");
+        addAllFirst(Arrays.asList(items));
+    }
+
+    // Add the items to the front, keeping their iteration order
+    public void addAllFirst(Iterable<? extends Item> items) {
+        if (items == null) throw new IllegalArgumentException("Items cannot be null");
+        Node first = chain(items);
+        if (first == null) return;
+        Node last = first.prev;
+        first.prev = null;
+        if (head == null) {     // size already counts the chain
+            tail = last;
+        } else {
+            last.next = head;
+            head.prev = last;
+        }
+        head = first;
+    }
+
+    // Add the items to the back, keeping their order: items[items.length - 1] becomes the last item
+    public void addAllLast(Item[] items) {
+        if (items == null) throw new IllegalArgumentException("Items cannot be null");
+        addAllLast(Arrays.asList(items));
+    }
+
+    // Add the items to the back, keeping their iteration order
+    public void addAllLast(Iterable<? extends Item> items) {
+        if (items == null) throw new IllegalArgumentException("Items cannot be null");
+        Node first = chain(items);
+        if (first == null) return;
+        Node last = first.prev;
+        if (head == null) {     // size already counts the chain
+            first.prev = null;
+            head = first;
+        } else {
+            first.prev = tail;
+            tail.next = first;
+        }
+        tail = last;
+    }
+
+    // Remove up to n items from the front into dst[0..], in order; return how many were removed
+    public int removeFirst(Item[] dst, int n) {
+        if (dst == null) throw new IllegalArgumentException("Destination cannot be null");
+        if (n < 0 || n > dst.length) throw new IllegalArgumentException("n must be between 0 and dst.length");
+        int count = Math.min(n, size);
+        Node current = head;
+        for (int i = 0; i < count; i++) {
+            dst[i] = current.item;
+            current = current.next;
+        }
+        cutFront(current, count);
+        return count;
+    }
+
+    // Remove every item from the front into the collection; return how many were moved
+    public int drainTo(Collection<? super Item> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    // Remove up to max items from the front into the collection; return how many were moved
+    public int drainTo(Collection<? super Item> c, int max) {
+        if (c == null) throw new IllegalArgumentException("Collection cannot be null");
+        if (max < 0) throw new IllegalArgumentException("max cannot be negative");
+        int count = 0;
+        Node current = head;
+        try {
+            while (current != null && count < max) {
+                c.add(current.item);
+                current = current.next;
+                count++;
+            }
+        } finally {
+            // items the collection accepted leave the deque even if a later add throws
+            cutFront(current, count);
+        }
+        return count;
+    }
+
     @Override
     public Iterator<Item> iterator() {
         return new DequeIterator();
     }
 
+    // Return a front-to-back spliterator that splits into halves of exactly known size
+    @Override
+    public Spliterator<Item> spliterator() {
+        return new DequeSpliterator(head, size);
+    }
+
+    // Return a sequential stream over the items, front to back
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Return a parallel stream over the items, front to back
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    // Link the items into a detached chain and add its length to size; return its first node, whose
+    // prev points at the last node, or null if there are no items. A null item leaves the deque unchanged.
+    private Node chain(Iterable<? extends Item> items) {
+        Node first = null;
+        Node last = null;
+        int count = 0;
+        for (Item item : items) {
+            if (item == null) throw new IllegalArgumentException("Item cannot be null");
+            Node node = new Node(item);
+            if (first == null) {
+                first = node;
+            } else {
+                last.next = node;
+                node.prev = last;
+            }
+            last = node;
+            count++;
+        }
+        if (first == null) return null;
+        first.prev = last;
+        size += count;
+        return first;
+    }
+
+    // Drop the count items in front of newHead in one splice
+    private void cutFront(Node newHead, int count) {
+        if (count == 0) return;
+        head = newHead;
+        size -= count;
+        if (isEmpty()) tail = null;
+        else head.prev = null;
+    }
+
     private class DequeIterator implements Iterator<Item> {
         private Node currentNode = head;
 
@@ -117,6 +256,63 @@ public class Deque<Item> implements Iterable<Item> {
         }
     }
 
+    // Covers the remaining nodes starting at current; splitting walks to the middle to hand off the front half
+    private class DequeSpliterator implements Spliterator<Item> {
+        private Node current;
+        private int remaining;
+
+        DequeSpliterator(Node current, int remaining) {
+            this.current = current;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (action == null) throw new NullPointerException();
+            if (remaining == 0) return false;
+            Item item = current.item;
+            current = current.next;
+            remaining--;
+            action.accept(item);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Item> action) {
+            if (action == null) throw new NullPointerException();
+            Node node = current;
+            int count = remaining;
+            current = null;
+            remaining = 0;
+            for (int i = 0; i < count; i++) {
+                action.accept(node.item);
+                node = node.next;
+            }
+        }
+
+        @Override
+        public Spliterator<Item> trySplit() {
+            if (remaining < 2) return null;
+            int half = remaining / 2;
+            Node front = current;
+            for (int i = 0; i < half; i++) {
+                current = current.next;
+            }
+            remaining -= half;
+            return new DequeSpliterator(front, half);
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
     // Unit testing (required)
     public static void main(String[] args) {
         Deque<Integer> deque = new Deque<>();
@@ -213,6 +409,64 @@ public class Deque<Item> implements Iterable<Item> {
             // Expected
         }
 
+        // Test bulk operations
+        deque = new Deque<>();
+        deque.addLast(5);
+        deque.addAllFirst(new Integer[] { 1, 2, 3, 4 });
+        deque.addAllLast(Arrays.asList(6, 7, 8));
+        deque.addAllLast(new Integer[0]);
+        if (deque.size() != 8) {
+            System.out.println("Error: size() returned incorrect value after bulk adds");
+        }
+        Integer[] batch = new Integer[3];
+        if (deque.removeFirst(batch, 3) != 3 || !Arrays.equals(batch, new Integer[] { 1, 2, 3 })) {
+            System.out.println("Error: removeFirst(dst, n) returned incorrect items");
+        }
+        List<Integer> drained = new ArrayList<>();
+        if (deque.drainTo(drained, 2) != 2 || !drained.equals(Arrays.asList(4, 5))) {
+            System.out.println("Error: drainTo(c, max) returned incorrect items");
+        }
+        deque.addAllFirst(deque);
+        if (deque.drainTo(drained) != 6 || !drained.equals(Arrays.asList(4, 5, 6, 7, 8, 6, 7, 8))) {
+            System.out.println("Error: drainTo(c) returned incorrect items after self add");
+        }
+        if (!deque.isEmpty() || deque.removeFirst(batch, 3) != 0) {
+            System.out.println("Error: deque not empty after drainTo");
+        }
+        try {
+            deque.addAllLast(Arrays.asList(1, null, 3));
+            System.out.println("Error: addAllLast did not throw IllegalArgumentException for null item");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        if (!deque.isEmpty()) {
+            System.out.println("Error: failed addAllLast changed the deque");
+        }
+        deque.addAllLast(Arrays.asList(1, 2));
+        if (deque.removeLast() != 2 || deque.removeFirst() != 1 || !deque.isEmpty()) {
+            System.out.println("Error: links incorrect after bulk add");
+        }
+
+        // Test streams
+        deque = new Deque<>();
+        for (int i = 0; i < 1000; i++) {
+            deque.addLast(i);
+        }
+        Spliterator<Integer> back = deque.spliterator();
+        Spliterator<Integer> front = back.trySplit();
+        if (front == null || front.estimateSize() != 500 || back.estimateSize() != 500) {
+            System.out.println("Error: spliterator did not split evenly");
+        }
+        if (deque.stream().mapToLong(i -> i).sum() != 499500
+                || deque.parallelStream().mapToLong(i -> i).sum() != 499500) {
+            System.out.println("Error: stream returned incorrect items");
+        }
+        List<Integer> ordered = new ArrayList<>();
+        deque.parallelStream().forEachOrdered(ordered::add);
+        if (ordered.size() != 1000 || ordered.get(0) != 0 || ordered.get(999) != 999) {
+            System.out.println("Error: parallel stream lost the front-to-back order");
+        }
+
         System.out.println("All tests passed");
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * RingDeque specialized to long values: a power-of-two circular long[] with mask-based indexing, so
+ * values are never boxed on the way in or out. Iterate with the primitive iterator to avoid boxing there too.
+ */
+public class LongDeque {
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] items;
+    private int head;   // index of the first value
+    private int size;
+
+    // Construct an empty deque
+    public LongDeque() {
+        items = new long[MIN_CAPACITY];
+        head = 0;
+        size = 0;
+    }
+
+    // Is the deque empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Return the number of values on the deque
+    public int size() {
+        return size;
+    }
+
+    // Add the value to the front
+    public void addFirst(long value) {
+        if (size == items.length) resize(items.length * 2);
+        head = (head - 1) & (items.length - 1);
+        items[head] = value;
+        size++;
+    }
+
+    // Add the value to the back
+    public void addLast(long value) {
+        if (size == items.length) resize(items.length * 2);
+        items[(head + size) & (items.length - 1)] = value;
+        size++;
+    }
+
+    // Remove and return the value from the front
+    public long removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        long value = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        shrinkIfSparse();
+        return value;
+    }
+
+    // Remove and return the value from the back
+    public long removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        long value = items[(head + size - 1) & (items.length - 1)];
+        size--;
+        shrinkIfSparse();
+        return value;
+    }
+
+    // Iterate from front to back without boxing
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return items[(head + index++) & (items.length - 1)];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > MIN_CAPACITY && size == items.length / 4) resize(items.length / 2);
+    }
+
+    // Copy the values, unwrapped, to the front of a new array of the given power-of-two capacity
+    private void resize(int capacity) {
+        long[] copy = new long[capacity];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, copy, 0, firstPart);
+        System.arraycopy(items, 0, copy, firstPart, size - firstPart);
+        items = copy;
+        head = 0;
+    }
+
+    // Unit testing
+    public static void main(String[] args) {
+        LongDeque deque = new LongDeque();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 2 == 0) deque.addFirst(i);
+            else deque.addLast(i);
+        }
+        if (deque.size() != 1000) {
+            System.out.println("Error: size() returned incorrect value");
+        }
+        PrimitiveIterator.OfLong iterator = deque.iterator();
+        if (iterator.nextLong() != 998) {
+            System.out.println("Error: iterator returned incorrect first value");
+        }
+        for (int i = 999; i >= 0; i--) {
+            long value = i % 2 == 0 ? deque.removeFirst() : deque.removeLast();
+            if (value != i) {
+                System.out.println("Error: removed " + value + " but expected " + i);
+                break;
+            }
+        }
+        try {
+            deque.removeFirst();
+            System.out.println("Error: removeFirst did not throw NoSuchElementException on empty deque");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        System.out.println("All tests passed");
+    }
+}
@@ -0,0 +1,219 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Deque of fixed-size records kept outside the Java heap.
+ *
+ * Records are encoded by a RecordCodec into direct-buffer pages (OffHeapPages). The pages form a
+ * ring, like the items of RingDeque: adding at either end takes a fresh page only when the end page
+ * is full, and removing releases a page once it empties, so nothing is ever copied when the deque
+ * grows. Only the page references are copied, when the ring of pages itself fills up.
+ *
+ * close() drops the pages but cannot free them: direct memory is returned only when the collector
+ * reclaims the buffers (the JDK 17 foreign memory API that would free it at once is still incubating),
+ * and until then it counts against -XX:MaxDirectMemorySize. Size that limit for the largest deque you
+ * expect, plus what closed deques may still be holding. Any call after close() throws
+ * IllegalStateException.
+ */
+public class OffHeapDeque<Item> implements AutoCloseable {
+    private final RecordCodec<Item> codec;
+    private final OffHeapPages store;
+    private ByteBuffer[] ring = new ByteBuffer[8];  // power-of-two ring of pages
+    private int firstPage;      // ring index of the page holding the first record
+    private int usedPages;
+    private int headOffset;     // slot of the first record within its page
+    private long size;
+    private boolean closed;
+
+    // construct an empty deque of records laid out by the codec
+    public OffHeapDeque(RecordCodec<Item> codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("codec cannot be null");
+        }
+        this.codec = codec;
+        this.store = new OffHeapPages(codec.recordSize());
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // return the number of records on the deque
+    public long size() {
+        ensureOpen();
+        return size;
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        ensureOpen();
+        if (item == null) throw new IllegalArgumentException("Item cannot be null");
+        if (headOffset == 0) {
+            ensureRingRoom();
+            firstPage = (firstPage - 1) & (ring.length - 1);
+            ring[firstPage] = store.allocate();
+            usedPages++;
+            headOffset = store.recordsPerPage();
+        }
+        headOffset--;
+        size++;
+        codec.write(item, page(0), offset(0));
+    }
+
+    // add the item to the back
+    public void addLast(Item item) {
+        ensureOpen();
+        if (item == null) throw new IllegalArgumentException("Item cannot be null");
+        if (((headOffset + size) >>> store.shift) == usedPages) {
+            ensureRingRoom();
+            ring[(firstPage + usedPages) & (ring.length - 1)] = store.allocate();
+            usedPages++;
+        }
+        size++;
+        codec.write(item, page(size - 1), offset(size - 1));
+    }
+
+    // remove and return the item from the front
+    public Item removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        Item item = codec.read(page(0), offset(0));
+        headOffset++;
+        size--;
+        if (headOffset == store.recordsPerPage()) {
+            store.release(ring[firstPage]);
+            ring[firstPage] = null;
+            firstPage = (firstPage + 1) & (ring.length - 1);
+            usedPages--;
+            headOffset = 0;
+        }
+        return item;
+    }
+
+    // remove and return the item from the back
+    public Item removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        Item item = codec.read(page(size - 1), offset(size - 1));
+        size--;
+        if (usedPages > ((headOffset + size + store.mask) >>> store.shift)) {
+            int last = (firstPage + usedPages - 1) & (ring.length - 1);
+            store.release(ring[last]);
+            ring[last] = null;
+            usedPages--;
+            if (usedPages == 0) {
+                headOffset = 0;
+            }
+        }
+        return item;
+    }
+
+    // release the pages; the deque cannot be used afterwards
+    @Override
+    public void close() {
+        closed = true;
+        ring = null;
+        usedPages = 0;
+        size = 0;
+        store.close();
+    }
+
+    // Double the ring of pages when every entry is in use, unwrapping it to start at 0
+    private void ensureRingRoom() {
+        if (usedPages < ring.length) return;
+        ByteBuffer[] bigger = new ByteBuffer[ring.length * 2];
+        for (int i = 0; i < usedPages; i++) {
+            bigger[i] = ring[(firstPage + i) & (ring.length - 1)];
+        }
+        ring = bigger;
+        firstPage = 0;
+    }
+
+    // page holding the record at position index from the front
+    private ByteBuffer page(long index) {
+        long slot = headOffset + index;
+        return ring[(firstPage + (int) (slot >>> store.shift)) & (ring.length - 1)];
+    }
+
+    private int offset(long index) {
+        return (int) ((headOffset + index) & store.mask) * store.recordSize;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Deque is closed");
+        }
+    }
+
+    // Unit testing: random operations across many page boundaries, checked against ArrayDeque
+    public static void main(String[] args) {
+        RecordCodec<Long> longs = new RecordCodec<Long>() {
+            public int recordSize() {
+                return 8;
+            }
+
+            public void write(Long item, ByteBuffer buffer, int offset) {
+                buffer.putLong(offset, item);
+            }
+
+            public Long read(ByteBuffer buffer, int offset) {
+                return buffer.getLong(offset);
+            }
+        };
+
+        SplittableRandom random = new SplittableRandom(7);
+        ArrayDeque<Long> expected = new ArrayDeque<>();
+        try (OffHeapDeque<Long> deque = new OffHeapDeque<>(longs)) {
+            for (int step = 0; step < 3_000_000; step++) {
+                // drift the size up and down across pages of 131072 records
+                boolean grow = (step / 500_000) % 2 == 0 ? random.nextInt(10) < 7 : random.nextInt(10) < 3;
+                long value = random.nextLong();
+                if (grow || expected.isEmpty()) {
+                    if (random.nextBoolean()) {
+                        deque.addFirst(value);
+                        expected.addFirst(value);
+                    } else {
+                        deque.addLast(value);
+                        expected.addLast(value);
+                    }
+                } else {
+                    boolean front = random.nextBoolean();
+                    long got = front ? deque.removeFirst() : deque.removeLast();
+                    long want = front ? expected.removeFirst() : expected.removeLast();
+                    if (got != want) {
+                        System.out.println("Error: step " + step + " removed " + got + " but expected " + want);
+                        break;
+                    }
+                }
+                if (deque.size() != expected.size()) {
+                    System.out.println("Error: size() returned " + deque.size() + " but expected " + expected.size());
+                    break;
+                }
+            }
+            while (!expected.isEmpty()) {
+                if (deque.removeLast().longValue() != expected.removeLast()) {
+                    System.out.println("Error: removeLast returned incorrect value while draining");
+                    break;
+                }
+            }
+            if (deque.usedPages > 1) {
+                System.out.println("Error: " + deque.usedPages + " pages still held by an empty deque");
+            }
+            try {
+                deque.removeFirst();
+                System.out.println("Error: removeFirst did not throw NoSuchElementException on empty deque");
+            } catch (NoSuchElementException e) {
+                // Expected
+            }
+            try {
+                deque.addFirst(null);
+                System.out.println("Error: addFirst did not throw IllegalArgumentException for null argument");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+
+        System.out.println("All tests passed");
+    }
+}
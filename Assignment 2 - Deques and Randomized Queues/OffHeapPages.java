@@ -0,0 +1,51 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Page allocator shared by the off-heap queues: direct buffers of about 1 MB holding a power-of-two
+ * number of fixed-size records, so a record index splits into page and slot with a shift and a mask.
+ *
+ * The last released page is kept for the next allocation, so a size hovering around a page boundary
+ * does not allocate and drop a page on every call. Direct memory goes back to the system when the
+ * page buffers are garbage collected; with one object per megabyte of records the collector has
+ * almost nothing to scan.
+ */
+final class OffHeapPages {
+    private static final int PAGE_BYTES = 1 << 20;
+
+    final int recordSize;
+    final int shift;    // log2 of records per page
+    final int mask;     // records per page - 1
+    private ByteBuffer spare;
+
+    OffHeapPages(int recordSize) {
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("recordSize must be positive");
+        }
+        this.recordSize = recordSize;
+        int perPage = Integer.highestOneBit(Math.max(1, PAGE_BYTES / recordSize));
+        this.shift = Integer.numberOfTrailingZeros(perPage);
+        this.mask = perPage - 1;
+    }
+
+    int recordsPerPage() {
+        return mask + 1;
+    }
+
+    ByteBuffer allocate() {
+        if (spare != null) {
+            ByteBuffer page = spare;
+            spare = null;
+            return page;
+        }
+        return ByteBuffer.allocateDirect(recordSize << shift).order(ByteOrder.nativeOrder());
+    }
+
+    void release(ByteBuffer page) {
+        spare = page;
+    }
+
+    void close() {
+        spare = null;
+    }
+}
@@ -0,0 +1,188 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * RandomizedQueue of fixed-size records kept outside the Java heap.
+ *
+ * Records are encoded by a RecordCodec into consecutive slots of direct-buffer pages (OffHeapPages),
+ * so a queue of millions of small records is a few hundred buffer objects rather than millions of
+ * item objects. Items are decoded on the way out; each dequeue copies the last record's bytes into
+ * the hole, as RandomizedQueue does with references. Sizes are longs, so the queue can outgrow an array.
+ *
+ * close() only drops the references to the pages: the direct memory itself comes back when the
+ * collector reclaims the buffers, not when close() returns (the JDK 17 foreign memory API that would
+ * free it at once is still incubating). Until then the pages count against -XX:MaxDirectMemorySize,
+ * which at tens of gigabytes has to be raised to match, or enqueue fails with OutOfMemoryError even
+ * though the heap is nearly empty. Any call after close() throws IllegalStateException.
+ */
+public class OffHeapRandomizedQueue<Item> implements AutoCloseable {
+    private final RecordCodec<Item> codec;
+    private final OffHeapPages store;
+    private final RandomGenerator random;   // null: draw from StdRandom
+    private ByteBuffer[] pages = new ByteBuffer[8];
+    private int pageCount;
+    private long size;
+    private boolean closed;
+
+    // construct an empty queue of records laid out by the codec
+    public OffHeapRandomizedQueue(RecordCodec<Item> codec) {
+        this(codec, null);
+    }
+
+    // construct an empty queue of records laid out by the codec, drawing from the given generator
+    // (null for StdRandom)
+    public OffHeapRandomizedQueue(RecordCodec<Item> codec, RandomGenerator random) {
+        if (codec == null) {
+            throw new IllegalArgumentException("codec cannot be null");
+        }
+        this.codec = codec;
+        this.store = new OffHeapPages(codec.recordSize());
+        this.random = random;
+    }
+
+    // is the queue empty?
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // return the number of records on the queue
+    public long size() {
+        ensureOpen();
+        return size;
+    }
+
+    // add the item
+    public void enqueue(Item item) {
+        ensureOpen();
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot add null item to the queue");
+        }
+        if ((size >>> store.shift) == pageCount) {
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, pageCount * 2);
+            }
+            pages[pageCount++] = store.allocate();
+        }
+        codec.write(item, page(size), offset(size));
+        size++;
+    }
+
+    // remove and return a random item
+    public Item dequeue() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        long index = Randoms.uniformLong(random, size);
+        Item item = codec.read(page(index), offset(index));
+        long last = size - 1;
+        if (index != last) {
+            page(index).put(offset(index), page(last), offset(last), store.recordSize);
+        }
+        size = last;
+        if (pageCount > ((size + store.mask) >>> store.shift)) {
+            store.release(pages[--pageCount]);
+            pages[pageCount] = null;
+        }
+        return item;
+    }
+
+    // return a random item (but do not remove it)
+    public Item sample() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        long index = Randoms.uniformLong(random, size);
+        return codec.read(page(index), offset(index));
+    }
+
+    // release the pages; the queue cannot be used afterwards
+    @Override
+    public void close() {
+        closed = true;
+        pages = null;
+        pageCount = 0;
+        size = 0;
+        store.close();
+    }
+
+    private ByteBuffer page(long index) {
+        return pages[(int) (index >>> store.shift)];
+    }
+
+    private int offset(long index) {
+        return (int) (index & store.mask) * store.recordSize;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Queue is closed");
+        }
+    }
+
+    // unit testing: 24-byte records through several pages, checked against the expected multiset
+    public static void main(String[] args) {
+        RecordCodec<long[]> descriptor = new RecordCodec<long[]>() {
+            public int recordSize() {
+                return 24;
+            }
+
+            public void write(long[] item, ByteBuffer buffer, int offset) {
+                buffer.putLong(offset, item[0]);
+                buffer.putLong(offset + 8, item[1]);
+                buffer.putLong(offset + 16, item[2]);
+            }
+
+            public long[] read(ByteBuffer buffer, int offset) {
+                return new long[] { buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16) };
+            }
+        };
+
+        int n = 200_000;
+        try (OffHeapRandomizedQueue<long[]> queue = new OffHeapRandomizedQueue<>(descriptor, new SplittableRandom(1))) {
+            for (int i = 0; i < n; i++) {
+                queue.enqueue(new long[] { i, -i, 3L * i });
+            }
+            if (queue.size() != n) {
+                System.out.println("Error: size() returned " + queue.size());
+            }
+            long[] sampled = queue.sample();
+            if (sampled[1] != -sampled[0] || sampled[2] != 3 * sampled[0]) {
+                System.out.println("Error: sample returned a corrupted record");
+            }
+            boolean[] seen = new boolean[n];
+            while (!queue.isEmpty()) {
+                long[] record = queue.dequeue();
+                int i = (int) record[0];
+                if (seen[i] || record[1] != -i || record[2] != 3L * i) {
+                    System.out.println("Error: dequeue returned a duplicate or corrupted record " + i);
+                    break;
+                }
+                seen[i] = true;
+            }
+            if (queue.pageCount != 0) {
+                System.out.println("Error: " + queue.pageCount + " pages still held by an empty queue");
+            }
+            try {
+                queue.dequeue();
+                System.out.println("Error: dequeue did not throw NoSuchElementException on empty queue");
+            } catch (NoSuchElementException e) {
+                // Expected
+            }
+        }
+
+        OffHeapRandomizedQueue<long[]> closed = new OffHeapRandomizedQueue<>(descriptor);
+        closed.enqueue(new long[3]);
+        closed.close();
+        try {
+            closed.enqueue(new long[3]);
+            System.out.println("Error: enqueue did not throw IllegalStateException after close");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        System.out.println("All tests passed");
+    }
+}
@@ -1,10 +1,64 @@
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 
+// Usage: java Permutation k [--reservoir] [--seed s] < input
+//        java Permutation k --file path [--seed s]
+// With --seed the output is the same on every run and every machine.
 public class Permutation {
-    public static void main(String[] args) {
+    private static final long MIN_CHUNK = 1 << 20;
+    private static final long MAX_CHUNK = 1 << 30;
+    // a fixed chunk count rather than one per thread, so seeded output does not depend on the core count
+    private static final int CHUNKS = 256;
+
+    public static void main(String[] args) throws IOException {
         int k = Integer.parseInt(args[0]);
-        RandomizedQueue<String> queue = new RandomizedQueue<>();
+        boolean reservoir = false;
+        Path file = null;
+        RandomGenerator random = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--reservoir":
+                    reservoir = true;
+                    break;
+                case "--file":
+                    file = Path.of(args[++i]);
+                    break;
+                case "--seed":
+                    random = new SplittableRandom(Long.parseLong(args[++i]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (file != null) {
+            print(sampleFile(file, k, Runtime.getRuntime().availableProcessors(), random));
+            return;
+        }
+        if (reservoir) {
+            print(sample(new Tokenizer(new FileInputStream(FileDescriptor.in).getChannel()), k, random));
+            return;
+        }
+        RandomizedQueue<String> queue = new RandomizedQueue<>(random);
 
         // Read all strings from standard input and add them to the queue
         while (!StdIn.isEmpty()) {
@@ -17,4 +71,110 @@ public class Permutation {
             k--;
         }
     }
+
+    // Streaming mode: keep only a k-item reservoir, so memory is O(k) however long the input is.
+    // Tokens the reservoir would pass over are skipped as bytes and never become Strings.
+    private static ReservoirSampler<String> sample(Tokenizer tokens, int k, RandomGenerator random) {
+        ReservoirSampler<String> sampler = new ReservoirSampler<>(k, random);
+        while (true) {
+            long gap = sampler.skipCount();
+            if (gap > 0) {
+                long skipped = tokens.skip(gap);
+                sampler.skip(skipped);
+                if (skipped < gap) {
+                    break;
+                }
+            }
+            String token = tokens.next();
+            if (token == null) {
+                break;
+            }
+            sampler.offer(token);
+        }
+        return sampler;
+    }
+
+    // File mode: map the file, cut it into chunks at whitespace, sample each chunk on its own thread
+    // and merge the chunk reservoirs, in file order, into one uniform sample of the whole file. Each chunk
+    // draws from a generator split off random in file order, so a seeded run does not depend on scheduling.
+    private static ReservoirSampler<String> sampleFile(Path path, int k, int threads, RandomGenerator random)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            List<Callable<ReservoirSampler<String>>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long from = bounds[i];
+                long to = bounds[i + 1];
+                RandomGenerator chunkRandom = Randoms.split(random);
+                tasks.add(() -> sample(new Tokenizer(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from)),
+                        k, chunkRandom));
+            }
+
+            ReservoirSampler<String> sampler = new ReservoirSampler<>(k, random);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                for (Future<ReservoirSampler<String>> f : pool.invokeAll(tasks)) {
+                    sampler.merge(f.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sampling " + path, e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Sampling " + path + " failed", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+            return sampler;
+        }
+    }
+
+    // Chunk start offsets plus the file size. Each cut is moved forward to the next whitespace byte so no
+    // token straddles two chunks; chunks are at most MAX_CHUNK bytes apart from that shift.
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / CHUNKS + 1));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long cut = 0;
+        while (cut < size) {
+            cut = Math.min(size, cut + chunk);
+            while (cut < size) {
+                probe.clear();
+                int read = channel.read(probe, cut);
+                if (read <= 0) {
+                    cut = size;
+                    break;
+                }
+                int i = 0;
+                while (i < read && !Tokenizer.isWhitespace(probe.get(i))) {
+                    i++;
+                }
+                cut += i;
+                if (i < read) {
+                    break;
+                }
+            }
+            bounds.add(cut);
+        }
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    // Print the reservoir in random order through one buffered writer
+    private static void print(ReservoirSampler<String> sampler) {
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            while (!sampler.isEmpty()) {
+                out.write(sampler.dequeue());
+                out.newLine();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -1,15 +1,98 @@
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import edu.princeton.cs.algs4.StdRandom;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.random.RandomGenerator;
+import java.util.stream.StreamSupport;
 
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int EMPTY = -1;     // free slot in the iterator's position table
+
+    private final CapacityPolicy policy;
+    private final RandomGenerator random;   // null: draw from StdRandom
     private Item[] queue;
     private int size;
+    private int modCount;   // bumped by enqueue and dequeue so open iterators can fail fast
+
+    // How the backing array grows and shrinks. The array grows by growthFactor when full and, unless
+    // shrinkThreshold is 0, shrinks back to growthFactor times the size once it is at most
+    // shrinkThreshold full. shrinkThreshold must stay below 1 / growthFactor so that a shrunk array is
+    // neither full nor due for another shrink: a size hovering around one boundary cannot make it
+    // resize back and forth.
+    public static final class CapacityPolicy {
+        // start at 2, double when full, halve at a quarter full
+        public static final CapacityPolicy DEFAULT = new CapacityPolicy(2, 2.0, 0.25);
+
+        private final int initialCapacity;
+        private final double growthFactor;
+        private final double shrinkThreshold;
+
+        public CapacityPolicy(int initialCapacity, double growthFactor, double shrinkThreshold) {
+            if (initialCapacity < 1 || initialCapacity > MAX_CAPACITY) {
+                throw new IllegalArgumentException("initialCapacity must be between 1 and " + MAX_CAPACITY);
+            }
+            if (!(growthFactor > 1.0) || Double.isInfinite(growthFactor)) {
+                throw new IllegalArgumentException("growthFactor must be greater than 1");
+            }
+            if (!(shrinkThreshold >= 0.0 && shrinkThreshold < 1.0 / growthFactor)) {
+                throw new IllegalArgumentException("shrinkThreshold must be in [0, 1 / growthFactor)");
+            }
+            this.initialCapacity = initialCapacity;
+            this.growthFactor = growthFactor;
+            this.shrinkThreshold = shrinkThreshold;
+        }
+
+        // grow as given but never shrink; for bursty queues that would rather keep their peak array
+        public static CapacityPolicy noShrink(int initialCapacity, double growthFactor) {
+            return new CapacityPolicy(initialCapacity, growthFactor, 0.0);
+        }
+
+        int grow(int capacity) {
+            return (int) Math.max(capacity + 1L, Math.min(MAX_CAPACITY, (long) Math.ceil(capacity * growthFactor)));
+        }
+
+        boolean shouldShrink(int size, int capacity) {
+            return size > 0 && capacity > initialCapacity && size <= capacity * shrinkThreshold;
+        }
+
+        int shrink(int size) {
+            return (int) Math.max(initialCapacity, Math.ceil(size * growthFactor));
+        }
+    }
 
     // construct an empty randomized queue
     public RandomizedQueue() {
-        queue = (Item[]) new Object[2];
+        this(CapacityPolicy.DEFAULT, null);
+    }
+
+    // construct an empty randomized queue that sizes its array by the given policy
+    public RandomizedQueue(CapacityPolicy policy) {
+        this(policy, null);
+    }
+
+    // construct an empty randomized queue that draws from the given generator instead of StdRandom;
+    // a seeded generator makes every dequeue, sample and iteration order replayable
+    public RandomizedQueue(RandomGenerator random) {
+        this(CapacityPolicy.DEFAULT, random);
+    }
+
+    // construct an empty randomized queue with the given policy and generator (null for StdRandom).
+    // Iterators and spliterators split a child off a SplittableGenerator; any other generator is shared
+    // with them and, like the queue itself, must then not be used from several threads at once.
+    @SuppressWarnings("unchecked")
+    public RandomizedQueue(CapacityPolicy policy, RandomGenerator random) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy cannot be null");
+        }
+        this.policy = policy;
+        this.random = random;
+        queue = (Item[]) new Object[policy.initialCapacity];
         size = 0;
     }
 
@@ -29,9 +112,13 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             throw new IllegalArgumentException("Cannot add null item to the queue");
         }
         if (size == queue.length) {
-            resize(queue.length * 2);
+            if (size == MAX_CAPACITY) {
+                throw new IllegalStateException("Queue is full");
+            }
+            resize(policy.grow(queue.length));
         }
         queue[size++] = item;
+        modCount++;
     }
 
     // remove and return a random item
@@ -39,12 +126,13 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         if (isEmpty()) {
             throw new NoSuchElementException("Queue is empty");
         }
-        int randomIndex = StdRandom.uniformInt(size);
+        int randomIndex = Randoms.uniformInt(random, size);
         Item item = queue[randomIndex];
         queue[randomIndex] = queue[--size];
         queue[size] = null;
-        if (size > 0 && size == queue.length / 4) {
-            resize(queue.length / 2);
+        modCount++;
+        if (policy.shouldShrink(size, queue.length)) {
+            resize(policy.shrink(size));
         }
         return item;
     }
@@ -54,7 +142,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         if (isEmpty()) {
             throw new NoSuchElementException("Queue is empty");
         }
-        int randomIndex = StdRandom.uniformInt(size);
+        int randomIndex = Randoms.uniformInt(random, size);
         return queue[randomIndex];
     }
 
@@ -63,32 +151,185 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return new RandomizedQueueIterator();
     }
 
-    private void resize(int newSize) {
-        Item[] temp = (Item[]) new Object[newSize];
-        for (int i = 0; i < size; i++) {
-            temp[i] = queue[i];
+    // return a spliterator over a shuffled snapshot of the items; its halves, taken in order, are
+    // still a uniformly random permutation, so splitting keeps the random-order guarantee
+    @Override
+    public Spliterator<Item> spliterator() {
+        Item[] snapshot = queue.clone();
+        Randoms.shuffle(Randoms.split(random), snapshot, 0, size);
+        return Spliterators.spliterator(snapshot, 0, size, Spliterator.NONNULL);
+    }
+
+    // return a sequential stream over the items in random order
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // return a parallel stream over the items in random order
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    // make room for at least minCapacity items without further resizing
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("minCapacity cannot exceed " + MAX_CAPACITY);
+        }
+        if (minCapacity > queue.length) {
+            resize(minCapacity);
+        }
+    }
+
+    // shrink the array to the current size (but not below 1)
+    public void trimToSize() {
+        if (queue.length > Math.max(size, 1)) {
+            resize(Math.max(size, 1));
         }
-        queue = temp;
     }
 
+    // length of the backing array
+    private int capacity() {
+        return queue.length;
+    }
+
+    private void resize(int newSize) {
+        queue = Arrays.copyOf(queue, newSize);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int hash(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Lazy Fisher-Yates shuffle over the indices 0..size-1 of the live array. Only the positions the
+    // shuffle has swapped are stored, in an open-addressed table of ints, so opening the iterator is
+    // O(1) and each next() is one shuffle step and at most one new entry. Once more than size/8 items
+    // have been read the table gives way to a plain int[] of positions, so a full pass never costs more
+    // than 4 bytes per item. Enqueue or dequeue while it is open makes next() throw.
     private class RandomizedQueueIterator implements Iterator<Item> {
-        private Item[] iteratorQueue;
+        private final int expectedModCount = modCount;
+        private final RandomGenerator iteratorRandom = Randoms.split(random);
         private int currentIndex;
-        public RandomizedQueueIterator() {
-            iteratorQueue = queue.clone();
-            StdRandom.shuffle(iteratorQueue, 0, size);
-            currentIndex = 0;
-        }
+        // swapped positions while few items have been read: keys[s] -> values[s], EMPTY for a free slot
+        private int[] keys = newTable(16);
+        private int[] values = new int[16];
+        private int entries;
+        // every position from then on; null until the switch
+        private int[] positions;
 
         public boolean hasNext() {
             return currentIndex < size;
         }
 
         public Item next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException("Queue changed during iteration");
+            }
             if (!hasNext()) {
                 throw new NoSuchElementException("No more items to return");
             }
-            return iteratorQueue[currentIndex++];
+            if (positions == null && currentIndex > size >>> 3) {
+                expand();
+            }
+            int i = currentIndex++;
+            int j = i + Randoms.uniformInt(iteratorRandom, size - i);
+            int atJ = positionOf(j);
+            if (j != i) {
+                setPosition(j, positionOf(i));
+            }
+            if (positions == null) {
+                removePosition(i);
+            }
+            return queue[atJ];
+        }
+
+        private int positionOf(int index) {
+            if (positions != null) {
+                return positions[index];
+            }
+            int slot = slotOf(index);
+            return keys[slot] == EMPTY ? index : values[slot];
+        }
+
+        private void setPosition(int index, int position) {
+            if (positions != null) {
+                positions[index] = position;
+                return;
+            }
+            int slot = slotOf(index);
+            if (keys[slot] == EMPTY) {
+                if (2 * (entries + 1) > keys.length) {
+                    rehash(2 * keys.length);
+                    slot = slotOf(index);
+                }
+                keys[slot] = index;
+                entries++;
+            }
+            values[slot] = position;
+        }
+
+        // Linear-probing delete: shift later entries of the same run back into the hole
+        private void removePosition(int index) {
+            int mask = keys.length - 1;
+            int hole = slotOf(index);
+            if (keys[hole] == EMPTY) {
+                return;
+            }
+            entries--;
+            for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hash(keys[next], mask);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = EMPTY;
+        }
+
+        // slot holding index, or the empty slot where it would go
+        private int slotOf(int index) {
+            int mask = keys.length - 1;
+            int slot = hash(index, mask);
+            while (keys[slot] != EMPTY && keys[slot] != index) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newTable(capacity);
+            values = new int[capacity];
+            for (int s = 0; s < oldKeys.length; s++) {
+                if (oldKeys[s] != EMPTY) {
+                    int slot = slotOf(oldKeys[s]);
+                    keys[slot] = oldKeys[s];
+                    values[slot] = oldValues[s];
+                }
+            }
+        }
+
+        // Switch from the table to a full array of positions
+        private void expand() {
+            positions = new int[size];
+            for (int k = 0; k < size; k++) {
+                positions[k] = k;
+            }
+            for (int s = 0; s < keys.length; s++) {
+                if (keys[s] != EMPTY) {
+                    positions[keys[s]] = values[s];
+                }
+            }
+            keys = null;
+            values = null;
         }
 
         public void remove() {
@@ -113,5 +354,86 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         while (iterator.hasNext()) {
             System.out.println("Iterator item: " + iterator.next());
         }
+
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i);
+        }
+        System.out.println("Parallel stream sum: " + queue.parallelStream().mapToLong(i -> i).sum());
+
+        // every item exactly once, and fail fast on modification
+        queue = new RandomizedQueue<>();
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i);
+        }
+        boolean[] seen = new boolean[1000];
+        int count = 0;
+        for (int item : queue) {
+            if (seen[item]) System.out.println("Error: iterator returned " + item + " twice");
+            seen[item] = true;
+            count++;
+        }
+        System.out.println("Iterator returned " + count + " of " + queue.size() + " items");
+        iterator = queue.iterator();
+        iterator.next();
+        queue.enqueue(0);
+        try {
+            iterator.next();
+            System.out.println("Error: iterator did not throw ConcurrentModificationException");
+        } catch (ConcurrentModificationException e) {
+            // Expected
+        }
+
+        // capacity policies
+        RandomizedQueue<Integer> bursty = new RandomizedQueue<>(CapacityPolicy.noShrink(16, 1.5));
+        for (int i = 0; i < 1000; i++) {
+            bursty.enqueue(i);
+        }
+        int peak = bursty.capacity();
+        while (bursty.size() > 1) {
+            bursty.dequeue();
+        }
+        if (bursty.capacity() != peak) {
+            System.out.println("Error: noShrink queue shrank from " + peak + " to " + bursty.capacity());
+        }
+        bursty.trimToSize();
+        bursty.ensureCapacity(100);
+        if (bursty.capacity() != 100 || bursty.size() != 1) {
+            System.out.println("Error: trimToSize/ensureCapacity gave capacity " + bursty.capacity());
+        }
+        RandomizedQueue<Integer> hovering = new RandomizedQueue<>();
+        for (int i = 0; i < 65; i++) {
+            hovering.enqueue(i);
+        }
+        int capacity = hovering.capacity();
+        for (int i = 0; i < 100; i++) {
+            hovering.dequeue();
+            hovering.enqueue(i);
+        }
+        if (hovering.capacity() != capacity) {
+            System.out.println("Error: queue hovering at a boundary resized");
+        }
+        try {
+            new CapacityPolicy(2, 2.0, 0.5);
+            System.out.println("Error: CapacityPolicy accepted a shrinkThreshold without hysteresis");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        System.out.println("Capacity policy tests finished");
+
+        // seeded queues replay exactly
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        for (StringBuilder sb : new StringBuilder[] { first, second }) {
+            RandomizedQueue<Integer> seeded = new RandomizedQueue<>(new SplittableRandom(42));
+            for (int i = 0; i < 100; i++) {
+                seeded.enqueue(i);
+            }
+            for (int item : seeded) {
+                sb.append(item).append(' ');
+            }
+            sb.append(seeded.sample()).append(' ').append(seeded.dequeue());
+        }
+        System.out.println(first.toString().equals(second.toString())
+                ? "Seeded runs match" : "Error: seeded runs differ");
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+import java.util.random.RandomGenerator;
+import edu.princeton.cs.algs4.StdRandom;
+
+/**
+ * Random draws from a caller-supplied generator, or from the shared StdRandom when it is null.
+ *
+ * Classes that take a RandomGenerator at construction go through these helpers, so passing null
+ * keeps their original StdRandom behavior while a seeded generator makes every draw replayable.
+ */
+final class Randoms {
+    private Randoms() { }
+
+    // uniform integer in [0, n)
+    static int uniformInt(RandomGenerator random, int n) {
+        return random == null ? StdRandom.uniformInt(n) : random.nextInt(n);
+    }
+
+    // uniform long in [0, n)
+    static long uniformLong(RandomGenerator random, long n) {
+        return random == null ? StdRandom.uniformLong(n) : random.nextLong(n);
+    }
+
+    // uniform real in [0, 1)
+    static double uniformDouble(RandomGenerator random) {
+        return random == null ? StdRandom.uniformDouble() : random.nextDouble();
+    }
+
+    // shuffle a[lo..hi-1] uniformly
+    static void shuffle(RandomGenerator random, Object[] a, int lo, int hi) {
+        if (random == null) {
+            StdRandom.shuffle(a, lo, hi);
+            return;
+        }
+        for (int i = hi - 1; i > lo; i--) {
+            int j = lo + random.nextInt(i - lo + 1);
+            Object swap = a[i];
+            a[i] = a[j];
+            a[j] = swap;
+        }
+    }
+
+    // an independent child generator when the generator can split, otherwise the generator itself
+    static RandomGenerator split(RandomGenerator random) {
+        if (random instanceof RandomGenerator.SplittableGenerator) {
+            return ((RandomGenerator.SplittableGenerator) random).split();
+        }
+        return random;
+    }
+}
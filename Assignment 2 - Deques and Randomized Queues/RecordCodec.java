@@ -0,0 +1,18 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size binary layout of an item, for OffHeapDeque and OffHeapRandomizedQueue.
+ *
+ * write and read use absolute gets and puts at the given offset and must touch exactly recordSize()
+ * bytes. The buffers are in native byte order.
+ */
+public interface RecordCodec<Item> {
+    // bytes per record
+    int recordSize();
+
+    // store the item at buffer[offset..offset + recordSize())
+    void write(Item item, ByteBuffer buffer, int offset);
+
+    // rebuild the item stored at buffer[offset..offset + recordSize())
+    Item read(ByteBuffer buffer, int offset);
+}
@@ -0,0 +1,253 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
+
+/**
+ * Uniform random sample of k items from a stream of unknown length, in O(k) memory.
+ *
+ * Uses Li's Algorithm L: once the reservoir is full, the number of items to pass over before the next
+ * one is kept is drawn directly from its geometric-like distribution, so the work per item offered is
+ * a counter increment. skipCount() exposes that gap, letting a reader step over the passed-over
+ * items without building them at all (see Tokenizer.skip).
+ *
+ * After the stream ends the reservoir reads like a RandomizedQueue: dequeue, sample and iterator
+ * return its items in uniformly random order. Offering more items after a dequeue still works, but the
+ * reservoir is then no longer a uniform sample of everything offered.
+ */
+public class ReservoirSampler<Item> implements Iterable<Item> {
+    private final Item[] reservoir;
+    private final RandomGenerator random;   // null: draw from StdRandom
+    private int size;
+    private long offered;   // items seen so far, kept or not
+    private long skip;      // items to pass over before the next one is kept
+    private double w;       // Algorithm L's running maximum-of-uniforms term
+
+    // construct a sampler that keeps k items
+    public ReservoirSampler(int k) {
+        this(k, null);
+    }
+
+    // construct a sampler that keeps k items and draws from the given generator (null for StdRandom)
+    @SuppressWarnings("unchecked")
+    public ReservoirSampler(int k, RandomGenerator random) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        reservoir = (Item[]) new Object[k];
+        this.random = random;
+        size = 0;
+        offered = 0;
+        skip = k == 0 ? Long.MAX_VALUE : 0;
+        w = 1.0;
+    }
+
+    // offer the next item of the stream
+    public void offer(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot offer null item");
+        }
+        offered++;
+        if (size < reservoir.length) {
+            reservoir[size++] = item;
+            if (size == reservoir.length) {
+                w = Math.exp(Math.log(uniform()) / reservoir.length);
+                nextSkip();
+            }
+        } else if (skip > 0) {
+            skip--;
+        } else {
+            reservoir[Randoms.uniformInt(random, reservoir.length)] = item;
+            w *= Math.exp(Math.log(uniform()) / reservoir.length);
+            nextSkip();
+        }
+    }
+
+    // number of upcoming items that will be passed over, without needing to see them
+    public long skipCount() {
+        return skip;
+    }
+
+    // account for n items of the stream passed over without being offered; n cannot exceed skipCount()
+    public void skip(long n) {
+        if (n < 0 || n > skip) {
+            throw new IllegalArgumentException("n must be between 0 and skipCount()");
+        }
+        skip -= n;
+        offered += n;
+    }
+
+    // number of items offered or skipped so far
+    public long offered() {
+        return offered;
+    }
+
+    // Fold in the sample of another, disjoint part of the stream, e.g. another chunk of the same file.
+    // The merged reservoir is a uniform sample of everything both samplers were offered: the number of
+    // items to take from each side is drawn from the hypergeometric distribution over the two stream
+    // lengths, then that many are picked at random from each reservoir. other is left empty. Meant for
+    // finished samples; offering more items afterwards no longer gives a uniform sample.
+    public void merge(ReservoirSampler<? extends Item> other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Cannot merge null sampler");
+        }
+        long mine = offered;
+        long theirs = other.offered;
+        int m = (int) Math.min(reservoir.length, mine + theirs);
+        int fromMine = 0;
+        for (int i = 0; i < m; i++) {
+            if (Randoms.uniformDouble(random) * (mine + theirs) < mine) {
+                fromMine++;
+                mine--;
+            } else {
+                theirs--;
+            }
+        }
+        while (size > fromMine) {
+            dequeue();
+        }
+        while (size < m) {
+            reservoir[size++] = other.dequeue();
+        }
+        offered += other.offered;
+        other.offered = 0;
+        while (!other.isEmpty()) {
+            other.dequeue();
+        }
+        if (size == reservoir.length) {
+            w = Math.exp(Math.log(uniform()) / reservoir.length);
+            nextSkip();
+        }
+    }
+
+    // is the reservoir empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // return the number of items in the reservoir
+    public int size() {
+        return size;
+    }
+
+    // remove and return a random item of the reservoir
+    public Item dequeue() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Reservoir is empty");
+        }
+        int randomIndex = Randoms.uniformInt(random, size);
+        Item item = reservoir[randomIndex];
+        reservoir[randomIndex] = reservoir[--size];
+        reservoir[size] = null;
+        return item;
+    }
+
+    // return a random item of the reservoir (but do not remove it)
+    public Item sample() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Reservoir is empty");
+        }
+        return reservoir[Randoms.uniformInt(random, size)];
+    }
+
+    // return an independent iterator over the reservoir in random order
+    public Iterator<Item> iterator() {
+        Item[] copy = reservoir.clone();
+        Randoms.shuffle(Randoms.split(random), copy, 0, size);
+        int n = size;
+        return new Iterator<Item>() {
+            private int currentIndex = 0;
+
+            public boolean hasNext() {
+                return currentIndex < n;
+            }
+
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more items to return");
+                }
+                return copy[currentIndex++];
+            }
+        };
+    }
+
+    // draw the gap to the next kept item: floor(log(U) / log(1 - w))
+    private void nextSkip() {
+        double gap = Math.floor(Math.log(uniform()) / Math.log1p(-w));
+        skip = gap >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) gap;
+    }
+
+    // uniform in (0, 1]
+    private double uniform() {
+        return 1.0 - Randoms.uniformDouble(random);
+    }
+
+    // unit testing: every item of a short stream should be kept k/n of the time
+    public static void main(String[] args) {
+        int n = 20;
+        int k = 5;
+        int trials = 200_000;
+        int[] kept = new int[n];
+        for (int t = 0; t < trials; t++) {
+            ReservoirSampler<Integer> sampler = new ReservoirSampler<>(k);
+            for (int i = 0; i < n; i++) {
+                if (sampler.skipCount() > 0) {
+                    sampler.skip(1);
+                } else {
+                    sampler.offer(i);
+                }
+            }
+            for (int item : sampler) {
+                kept[item]++;
+            }
+        }
+        double expected = (double) trials * k / n;
+        for (int i = 0; i < n; i++) {
+            if (Math.abs(kept[i] - expected) > 0.03 * expected) {
+                System.out.println("Error: item " + i + " kept " + kept[i] + " times, expected about " + (long) expected);
+            }
+        }
+
+        ReservoirSampler<String> small = new ReservoirSampler<>(3);
+        small.offer("a");
+        small.offer("b");
+        if (small.size() != 2 || small.offered() != 2 || small.skipCount() != 0) {
+            System.out.println("Error: a stream shorter than k should be kept whole");
+        }
+        small.dequeue();
+        small.dequeue();
+        try {
+            small.dequeue();
+            System.out.println("Error: dequeue did not throw NoSuchElementException on empty reservoir");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        // merging samples of two halves: every item should still be kept k/n of the time
+        kept = new int[n];
+        for (int t = 0; t < trials; t++) {
+            ReservoirSampler<Integer> left = new ReservoirSampler<>(k);
+            ReservoirSampler<Integer> right = new ReservoirSampler<>(k);
+            for (int i = 0; i < n; i++) {
+                (i < 3 ? left : right).offer(i);
+            }
+            left.merge(right);
+            if (left.size() != k || left.offered() != n || !right.isEmpty()) {
+                System.out.println("Error: merge returned " + left.size() + " items of " + left.offered());
+                break;
+            }
+            for (int item : left) {
+                kept[item]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (Math.abs(kept[i] - expected) > 0.03 * expected) {
+                System.out.println("Error: item " + i + " kept " + kept[i] + " times after merge, expected about " + (long) expected);
+            }
+        }
+
+        if (new ReservoirSampler<String>(0).skipCount() != Long.MAX_VALUE) {
+            System.out.println("Error: a sampler with k = 0 should skip everything");
+        }
+
+        System.out.println("All tests passed");
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Same API and null/exception behavior as Deque, backed by a circular array instead of linked nodes.
+ * The capacity is a power of two so wrapping an index is a mask, the array doubles when full and
+ * halves at a quarter full (never below MIN_CAPACITY), and adding an item allocates nothing between
+ * resizes. IntDeque and LongDeque are the same structure over primitive arrays.
+ */
+public class RingDeque<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 8;
+
+    private Item[] items;
+    private int head;   // index of the first item
+    private int size;
+
+    // Construct an empty deque
+    public RingDeque() {
+        items = newArray(MIN_CAPACITY);
+        head = 0;
+        size = 0;
+    }
+
+    // Is the deque empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Return the number of items on the deque
+    public int size() {
+        return size;
+    }
+
+    // Add the item to the front
+    public void addFirst(Item item) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null");
+        if (size == items.length) resize(items.length * 2);
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        size++;
+    }
+
+    // Add the item to the back
+    public void addLast(Item item) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null");
+        if (size == items.length) resize(items.length * 2);
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+    }
+
+    // Remove and return the item from the front
+    public Item removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        Item item = items[head];
+        items[head] = null;
+        head = (head + 1) & (items.length - 1);
+        size--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    // Remove and return the item from the back
+    public Item removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque is empty");
+        int last = (head + size - 1) & (items.length - 1);
+        Item item = items[last];
+        items[last] = null;
+        size--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    @Override
+    public Iterator<Item> iterator() {
+        return new RingDequeIterator();
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > MIN_CAPACITY && size == items.length / 4) resize(items.length / 2);
+    }
+
+    // Copy the items, unwrapped, to the front of a new array of the given power-of-two capacity
+    private void resize(int capacity) {
+        Item[] copy = newArray(capacity);
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, copy, 0, firstPart);
+        System.arraycopy(items, 0, copy, firstPart, size - firstPart);
+        items = copy;
+        head = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Item> Item[] newArray(int capacity) {
+        return (Item[]) new Object[capacity];
+    }
+
+    private class RingDequeIterator implements Iterator<Item> {
+        private int index = 0;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items[(head + index++) & (items.length - 1)];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Unit testing
+    public static void main(String[] args) {
+        RingDeque<Integer> deque = new RingDeque<>();
+
+        // Test addFirst and addLast
+        deque.addFirst(1);
+        deque.addLast(2);
+        deque.addFirst(3);
+        deque.addLast(4);
+
+        StringBuilder sb = new StringBuilder();
+        for (int item : deque) {
+            sb.append(item).append(" ");
+        }
+        if (!sb.toString().trim().equals("3 1 2 4")) {
+            System.out.println("Error: iterator returned incorrect order");
+        }
+
+        // Test growing and shrinking across the wrap-around point
+        for (int i = 0; i < 1000; i++) {
+            if (i % 2 == 0) deque.addFirst(i);
+            else deque.addLast(i);
+        }
+        if (deque.size() != 1004) {
+            System.out.println("Error: size() returned incorrect value after growing");
+        }
+        for (int i = 999; i >= 0; i--) {
+            int item = i % 2 == 0 ? deque.removeFirst() : deque.removeLast();
+            if (item != i) {
+                System.out.println("Error: removed " + item + " but expected " + i);
+                break;
+            }
+        }
+        if (deque.removeFirst() != 3 || deque.removeLast() != 4 || deque.size() != 2) {
+            System.out.println("Error: removeFirst/removeLast returned incorrect values after shrinking");
+        }
+
+        // Test exception handling
+        deque = new RingDeque<>();
+        try {
+            deque.removeFirst();
+            System.out.println("Error: removeFirst did not throw NoSuchElementException on empty deque");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        try {
+            deque.removeLast();
+            System.out.println("Error: removeLast did not throw NoSuchElementException on empty deque");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        try {
+            deque.addFirst(null);
+            System.out.println("Error: addFirst did not throw IllegalArgumentException for null argument");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            deque.addLast(null);
+            System.out.println("Error: addLast did not throw IllegalArgumentException for null argument");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            deque.iterator().next();
+            System.out.println("Error: iterator did not throw NoSuchElementException on empty deque");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+
+        System.out.println("All tests passed");
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Whitespace-separated tokens read straight from a byte channel or buffer.
+ *
+ * Unlike StdIn.readString, skip() steps over tokens by scanning bytes, so tokens nobody asked for
+ * are never decoded into Strings. Input is UTF-8; tokens are split on ASCII whitespace, which never
+ * occurs inside a multi-byte UTF-8 sequence.
+ */
+public class Tokenizer {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;  // null when reading a fixed buffer
+    private final ByteBuffer buffer;
+    private byte[] token = new byte[64];        // bytes of the token being assembled by next()
+
+    // read tokens from the channel through a direct buffer
+    public Tokenizer(ReadableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    // read tokens from the remaining bytes of the buffer, e.g. a memory-mapped file region
+    public Tokenizer(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null");
+        }
+        this.channel = null;
+        this.buffer = buffer;
+    }
+
+    // return the next token, or null at the end of the input
+    public String next() {
+        if (!scan(true)) {
+            return null;
+        }
+        int length = 0;
+        while (true) {
+            int from = buffer.position();
+            boolean ended = scanBuffered(false);
+            int count = buffer.position() - from;
+            if (length + count > token.length) {
+                token = Arrays.copyOf(token, Math.max(2 * token.length, length + count));
+            }
+            buffer.get(from, token, length, count);
+            length += count;
+            if (ended || !refill()) {
+                break;
+            }
+        }
+        return new String(token, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // step over up to n tokens without decoding them; return how many there were
+    public long skip(long n) {
+        long skipped = 0;
+        while (skipped < n && scan(true)) {
+            scan(false);
+            skipped++;
+        }
+        return skipped;
+    }
+
+    // advance past whitespace (or past token bytes), refilling as needed; false at the end of the input
+    private boolean scan(boolean whitespace) {
+        while (!scanBuffered(whitespace)) {
+            if (!refill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // advance within the buffered bytes; true if it stopped at a byte of the other kind
+    private boolean scanBuffered(boolean whitespace) {
+        int p = buffer.position();
+        int limit = buffer.limit();
+        while (p < limit && isWhitespace(buffer.get(p)) == whitespace) {
+            p++;
+        }
+        buffer.position(p);
+        return p < limit;
+    }
+
+    // read more bytes from the channel; false at the end of the input
+    private boolean refill() {
+        if (channel == null) {
+            return false;
+        }
+        try {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+}
@@ -0,0 +1,312 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import edu.princeton.cs.algs4.StdRandom;
+
+/**
+ * Randomized queue whose items are drawn with probability proportional to their weight.
+ *
+ * Weights sit in a Fenwick tree, so enqueue and dequeue are O(log n): dequeue walks the tree down to
+ * the item owning a uniform point of the total weight, then moves the last item into its slot. sample
+ * is O(1) from a Walker/Vose alias table. Any enqueue or dequeue makes the table stale; until enough
+ * samples have been drawn to pay for an O(n) rebuild, sample falls back to the O(log n) tree walk.
+ */
+public class WeightedRandomizedQueue<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 2;
+
+    private Item[] items;
+    private double[] weights;
+    private double[] tree;      // Fenwick tree over weights, 1-based
+    private int size;
+
+    // alias table over items[0..size-1]; valid while !aliasStale
+    private double[] aliasProbability;
+    private int[] alias;
+    private boolean aliasStale = true;
+    private int samplesSinceChange;
+
+    // construct an empty weighted randomized queue
+    public WeightedRandomizedQueue() {
+        resize(MIN_CAPACITY);
+        size = 0;
+    }
+
+    // is the queue empty?
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // return the number of items on the queue
+    public int size() {
+        return size;
+    }
+
+    // return the sum of the weights of the items on the queue
+    public double totalWeight() {
+        return prefixSum(size);
+    }
+
+    // add the item with the given positive weight
+    public void enqueue(Item item, double weight) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot add null item to the queue");
+        }
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Weight must be positive and finite");
+        }
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        items[size] = item;
+        weights[size] = weight;
+        add(size, weight);
+        size++;
+        changed();
+    }
+
+    // remove and return an item, chosen with probability proportional to its weight
+    public Item dequeue() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        int index = find(tree, size, StdRandom.uniformDouble() * totalWeight());
+        Item item = items[index];
+        int last = size - 1;
+        if (index != last) {
+            add(index, weights[last] - weights[index]);
+            items[index] = items[last];
+            weights[index] = weights[last];
+        }
+        add(last, -weights[last]);
+        items[last] = null;
+        weights[last] = 0.0;
+        size--;
+        if (size > 0 && size == items.length / 4) {
+            resize(items.length / 2);
+        }
+        changed();
+        return item;
+    }
+
+    // return an item chosen with probability proportional to its weight (but do not remove it)
+    public Item sample() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        if (aliasStale && ++samplesSinceChange >= size) {
+            buildAlias();
+        }
+        if (aliasStale) {
+            return items[find(tree, size, StdRandom.uniformDouble() * totalWeight())];
+        }
+        int column = StdRandom.uniformInt(size);
+        return StdRandom.uniformDouble() < aliasProbability[column] ? items[column] : items[alias[column]];
+    }
+
+    // return an independent iterator that yields the items in the order successive weighted dequeues
+    // would; it copies the tree once and then costs O(log n) per item
+    public Iterator<Item> iterator() {
+        return new WeightedIterator();
+    }
+
+    private void changed() {
+        aliasStale = true;
+        samplesSinceChange = 0;
+    }
+
+    // Vose's alias method: split the columns into under- and over-full, then top up each under-full
+    // column from an over-full one
+    private void buildAlias() {
+        int n = size;
+        aliasProbability = new double[n];
+        alias = new int[n];
+        double total = 0.0;
+        for (int i = 0; i < n; i++) {
+            total += weights[i];
+        }
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            aliasProbability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) small[smallCount++] = more;
+            else large[largeCount++] = more;
+        }
+        // what is left is full up to rounding
+        while (largeCount > 0) aliasProbability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) aliasProbability[small[--smallCount]] = 1.0;
+        aliasStale = false;
+    }
+
+    // add delta to the weight at index in the tree
+    private void add(int index, double delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // sum of the weights at indices 0..count-1
+    private double prefixSum(int count) {
+        double sum = 0.0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // index among the first count whose weight interval contains the point r of [0, total);
+    // clamped against rounding
+    private static int find(double[] fenwick, int count, double r) {
+        int pos = 0;
+        for (int step = Integer.highestOneBit(fenwick.length - 1); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= count && fenwick[next] <= r) {
+                pos = next;
+                r -= fenwick[next];
+            }
+        }
+        return Math.min(pos, count - 1);
+    }
+
+    // Move to arrays of the given capacity and rebuild the tree in O(n), which also clears rounding drift
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        Item[] newItems = (Item[]) new Object[capacity];
+        double[] newWeights = new double[capacity];
+        if (items != null) {
+            System.arraycopy(items, 0, newItems, 0, size);
+            System.arraycopy(weights, 0, newWeights, 0, size);
+        }
+        items = newItems;
+        weights = newWeights;
+        tree = new double[capacity + 1];
+        for (int i = 1; i <= size; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) tree[parent] += tree[i];
+        }
+    }
+
+    private class WeightedIterator implements Iterator<Item> {
+        private final double[] remainingTree = tree.clone();
+        private final double[] remainingWeights = weights.clone();
+        private final Item[] snapshot = items.clone();
+        private final int n = size;
+        private int returned = 0;
+
+        public boolean hasNext() {
+            return returned < n;
+        }
+
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more items to return");
+            }
+            double total = 0.0;
+            for (int i = n; i > 0; i -= i & -i) {
+                total += remainingTree[i];
+            }
+            int index = find(remainingTree, n, StdRandom.uniformDouble() * total);
+            // rounding can land on an item already returned; take the nearest one still left
+            for (int step = 1; remainingWeights[index] == 0.0; step++) {
+                if (index + step < n && remainingWeights[index + step] > 0.0) index += step;
+                else if (index - step >= 0 && remainingWeights[index - step] > 0.0) index -= step;
+            }
+            double weight = remainingWeights[index];
+            remainingWeights[index] = 0.0;
+            for (int i = index + 1; i < remainingTree.length; i += i & -i) {
+                remainingTree[i] -= weight;
+            }
+            returned++;
+            return snapshot[index];
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("Remove operation is not supported");
+        }
+    }
+
+    // unit testing: draws should follow the weights through every path
+    public static void main(String[] args) {
+        WeightedRandomizedQueue<Integer> queue = new WeightedRandomizedQueue<>();
+        for (int i = 1; i <= 4; i++) {
+            queue.enqueue(i, i);
+        }
+        if (queue.size() != 4 || queue.totalWeight() != 10.0) {
+            System.out.println("Error: size or totalWeight returned incorrect value");
+        }
+
+        // fresh queues sample through the tree, later samples through the alias table
+        int trials = 200_000;
+        int[] fromTree = new int[5];
+        int[] fromAlias = new int[5];
+        int[] dequeued = new int[5];
+        int[] iterated = new int[5];
+        for (int t = 0; t < trials; t++) {
+            fromAlias[queue.sample()]++;
+            iterated[queue.iterator().next()]++;
+            if (t % 10 == 0) {
+                WeightedRandomizedQueue<Integer> fresh = new WeightedRandomizedQueue<>();
+                for (int i = 1; i <= 4; i++) {
+                    fresh.enqueue(i, i);
+                }
+                fromTree[fresh.sample()]++;
+                dequeued[fresh.dequeue()]++;
+            }
+        }
+        for (int i = 1; i <= 4; i++) {
+            double expected = trials * i / 10.0;
+            if (Math.abs(fromAlias[i] - expected) > 0.03 * expected
+                    || Math.abs(iterated[i] - expected) > 0.03 * expected
+                    || Math.abs(fromTree[i] * 10 - expected) > 0.1 * expected
+                    || Math.abs(dequeued[i] * 10 - expected) > 0.1 * expected) {
+                System.out.println("Error: item " + i + " drawn " + fromAlias[i] + "/" + iterated[i] + "/"
+                        + fromTree[i] * 10 + "/" + dequeued[i] * 10 + " times, expected about " + (long) expected);
+            }
+        }
+
+        // the iterator returns every item once
+        int sum = 0;
+        for (int item : queue) {
+            sum += item;
+        }
+        if (sum != 10) {
+            System.out.println("Error: iterator did not return every item exactly once");
+        }
+
+        // drain through resizes; the total weight must come back to zero
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i, 1.0 + i % 7);
+        }
+        while (queue.size() > 0) {
+            queue.dequeue();
+        }
+        if (Math.abs(queue.totalWeight()) > 1e-9) {
+            System.out.println("Error: totalWeight is " + queue.totalWeight() + " after draining");
+        }
+        try {
+            queue.sample();
+            System.out.println("Error: sample did not throw NoSuchElementException on empty queue");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        try {
+            queue.enqueue(1, 0.0);
+            System.out.println("Error: enqueue did not throw IllegalArgumentException for zero weight");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        System.out.println("All tests passed");
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free Chase-Lev work-stealing deque.
+ *
+ * One owner thread works at the front: only the owner may call addFirst, removeFirst and pollFirst.
+ * Any number of thieves take from the back with removeLast/pollLast, concurrently with the owner and
+ * with each other. The owner's push and pop touch only its own end and synchronize with thieves
+ * through a single compare-and-set on top, and only when they race for the last item.
+ *
+ * Items live in a power-of-two circular array indexed by the ever-increasing counters top (the back)
+ * and bottom (the front). The owner grows the array when it fills up; thieves holding the old array
+ * still read valid items from it. The array never shrinks, and a slot taken by a thief keeps its
+ * reference until the owner reuses the slot.
+ */
+public class WorkStealingDeque<Item> {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private final AtomicLong top = new AtomicLong();   // next index to steal
+    private volatile long bottom;                       // next index to push
+    private volatile Object[] items;
+
+    // Construct an empty deque
+    public WorkStealingDeque() {
+        items = new Object[INITIAL_CAPACITY];
+    }
+
+    // Is the deque empty? A snapshot when other threads are active
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Return the number of items on the deque; a snapshot when other threads are active
+    public int size() {
+        long t = top.get();
+        long b = bottom;
+        return (int) Math.max(0, b - t);
+    }
+
+    // Add the item to the front; owner thread only
+    public void addFirst(Item item) {
+        if (item == null) throw new IllegalArgumentException("Item cannot be null");
+        long b = bottom;
+        long t = top.get();
+        Object[] a = items;
+        if (b - t > a.length - 1) {
+            a = grow(a, t, b);
+        }
+        a[(int) b & (a.length - 1)] = item;
+        bottom = b + 1;     // volatile write publishes the item to thieves
+    }
+
+    // Remove and return the item from the front; owner thread only
+    public Item removeFirst() {
+        Item item = pollFirst();
+        if (item == null) throw new NoSuchElementException("Deque is empty");
+        return item;
+    }
+
+    // Remove and return the item from the front, or null if the deque is empty; owner thread only
+    @SuppressWarnings("unchecked")
+    public Item pollFirst() {
+        long b = bottom - 1;
+        Object[] a = items;
+        bottom = b;         // claim the slot before looking at top (volatile store, then load)
+        long t = top.get();
+        if (t > b) {
+            bottom = b + 1; // empty
+            return null;
+        }
+        int slot = (int) b & (a.length - 1);
+        Item item = (Item) a[slot];
+        if (t == b) {
+            // last item: race the thieves for it
+            if (!top.compareAndSet(t, t + 1)) {
+                item = null;
+            }
+            bottom = b + 1;
+        }
+        if (item != null) {
+            a[slot] = null;
+        }
+        return item;
+    }
+
+    // Remove and return the item from the back; any thread
+    public Item removeLast() {
+        Item item = pollLast();
+        if (item == null) throw new NoSuchElementException("Deque is empty");
+        return item;
+    }
+
+    // Remove and return the item from the back, or null if the deque is empty; any thread
+    @SuppressWarnings("unchecked")
+    public Item pollLast() {
+        while (true) {
+            long t = top.get();
+            long b = bottom;
+            if (t >= b) {
+                return null;
+            }
+            Object[] a = items;
+            Item item = (Item) a[(int) t & (a.length - 1)];
+            if (top.compareAndSet(t, t + 1)) {
+                return item;
+            }
+            // lost the race to another thief or to the owner; try again
+        }
+    }
+
+    // Copy the live range [t, b) into an array twice as large and publish it
+    private Object[] grow(Object[] a, long t, long b) {
+        Object[] bigger = new Object[a.length * 2];
+        for (long i = t; i < b; i++) {
+            bigger[(int) i & (bigger.length - 1)] = a[(int) i & (a.length - 1)];
+        }
+        items = bigger;
+        return bigger;
+    }
+
+    // Stress test: one owner pushing and popping while thieves steal; every item must come out exactly once
+    public static void main(String[] args) throws InterruptedException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int thieves = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        ConcurrentHashMap.KeySetView<Integer, Boolean> seen = ConcurrentHashMap.newKeySet();
+        AtomicLong duplicates = new AtomicLong();
+        CountDownLatch ownerDone = new CountDownLatch(1);
+
+        Thread[] thiefThreads = new Thread[thieves];
+        for (int i = 0; i < thieves; i++) {
+            thiefThreads[i] = new Thread(() -> {
+                while (true) {
+                    Integer item = deque.pollLast();
+                    if (item != null) {
+                        if (!seen.add(item)) duplicates.incrementAndGet();
+                    } else if (ownerDone.getCount() == 0 && deque.isEmpty()) {
+                        return;
+                    }
+                }
+            });
+            thiefThreads[i].start();
+        }
+
+        for (int i = 0; i < items; i++) {
+            deque.addFirst(i);
+            if (i % 3 == 0) {
+                Integer item = deque.pollFirst();
+                if (item != null && !seen.add(item)) duplicates.incrementAndGet();
+            }
+        }
+        Integer item;
+        while ((item = deque.pollFirst()) != null) {
+            if (!seen.add(item)) duplicates.incrementAndGet();
+        }
+        ownerDone.countDown();
+        for (Thread thief : thiefThreads) {
+            thief.join();
+        }
+
+        if (duplicates.get() != 0) {
+            System.out.println("Error: " + duplicates.get() + " items were taken twice");
+        }
+        if (seen.size() != items) {
+            System.out.println("Error: " + (items - seen.size()) + " items were lost");
+        }
+        try {
+            deque.removeLast();
+            System.out.println("Error: removeLast did not throw NoSuchElementException on empty deque");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+        System.out.println("Stress test with " + thieves + " thieves and " + items + " items finished");
+    }
+}
@@ -25,10 +25,9 @@ public class BruteCollinearPoints {
             for (int q = p + 1; q < points.length; q++) {
                 for (int r = q + 1; r < points.length; r++) {
                     for (int s = r + 1; s < points.length; s++) {
-                        double slope1 = points[p].slopeTo(points[q]);
-                        double slope2 = points[p].slopeTo(points[r]);
-                        double slope3 = points[p].slopeTo(points[s]);
-                        if (slope1 == slope2 && slope2 == slope3) {
+                        // exact comparison: nearly equal slopes can round to the same double
+                        if (points[p].compareSlopes(points[q], points[r]) == 0
+                                && points[p].compareSlopes(points[q], points[s]) == 0) {
                             segments.add(new LineSegment(points[p], points[s]));
                         }
                     }
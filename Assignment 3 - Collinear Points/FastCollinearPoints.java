@@ -1,12 +1,28 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class FastCollinearPoints {
 
+    // origin blocks per worker, so a slow block does not leave the other workers idle
+    private static final int BLOCKS_PER_THREAD = 8;
+
     private final List<LineSegment> segments;
 
     public FastCollinearPoints(Point[] points) {
+        this(points, 1);
+    }
+
+    // Scan the origins on the given number of threads; the segments are the same, in the same order
+    public FastCollinearPoints(Point[] points, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be greater than 0");
+        }
         if (points == null) {
             throw new IllegalArgumentException("The input points array is null");
         }
@@ -29,40 +45,151 @@ public class FastCollinearPoints {
             }
         }
 
-        segments = new ArrayList<>();
+        segments = threads == 1 ? scanOrigins(sortedPoints, 0, sortedPoints.length)
+                : scanParallel(sortedPoints, threads);
+    }
 
-        // Iterate over each point as the origin
-        for (int i = 0; i < sortedPoints.length; i++) {
-            Point origin = sortedPoints[i];
+    // Origins are cut into blocks that workers take in turn; the block results are concatenated in
+    // origin order, so the segments come out exactly as in the single-threaded scan
+    private static List<LineSegment> scanParallel(Point[] sortedPoints, int threads) {
+        int n = sortedPoints.length;
+        int blocks = Math.min(n, threads * BLOCKS_PER_THREAD);
+        List<Callable<List<LineSegment>>> tasks = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; b++) {
+            int from = (int) ((long) n * b / blocks);
+            int to = (int) ((long) n * (b + 1) / blocks);
+            tasks.add(() -> scanOrigins(sortedPoints, from, to));
+        }
 
-            Arrays.sort(sortedPoints, origin.slopeOrder());
+        List<LineSegment> segments = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<List<LineSegment>> f : pool.invokeAll(tasks)) {
+                segments.addAll(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while finding segments", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Finding segments failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return segments;
+    }
+
+    // Segments whose smallest point is one of the origins sortedPoints[from..to-1]. sortedPoints is only
+    // read; the scratch arrays belong to this call. For each origin the other points are grouped by their
+    // exact slope key with a radix sort of (key, index) pairs. The sort is stable and the indices start out
+    // in natural order, so each run of equal slopes stays in natural order. An origin with a slope too
+    // steep for a key falls back to sorting Points with the exact comparator.
+    private static List<LineSegment> scanOrigins(Point[] sortedPoints, int from, int to) {
+        List<LineSegment> segments = new ArrayList<>();
+        int n = sortedPoints.length;
+        long[] keys = new long[n];
+        int[] order = new int[n];
+        long[] keyBuffer = new long[n];
+        int[] orderBuffer = new int[n];
+        Point[] scratch = null;
+
+        for (int i = from; i < to; i++) {
+            Point origin = sortedPoints[i];
+            boolean exact = true;
+            for (int j = 0; j < n; j++) {
+                keys[j] = origin.slopeKey(sortedPoints[j]);
+                order[j] = j;
+                if (keys[j] == Point.NO_SLOPE_KEY) {
+                    exact = false;
+                    break;
+                }
+            }
+            if (!exact) {
+                if (scratch == null) {
+                    scratch = new Point[n];
+                }
+                scanByComparator(segments, origin, sortedPoints, scratch);
+                continue;
+            }
 
-            int count = 1;
-            double currentSlope = origin.slopeTo(sortedPoints[0]);
+            radixSort(keys, order, keyBuffer, orderBuffer);
 
-            // Find collinear points
-            for (int j = 1; j < sortedPoints.length; j++) {
-                double slope = origin.slopeTo(sortedPoints[j]);
-                if (Double.compare(slope, currentSlope) == 0) {
-                    count++;
-                } else {
-                    if (count >= 3) {
-                        addSegment(origin, sortedPoints, j - count, j - 1);
+            // Find runs of at least three points with the same slope
+            int start = 0;
+            for (int j = 1; j <= n; j++) {
+                if (j == n || keys[j] != keys[start]) {
+                    if (j - start >= 3 && origin.compareTo(sortedPoints[order[start]]) < 0) {
+                        segments.add(new LineSegment(origin, sortedPoints[order[j - 1]]));
                     }
-                    count = 1;
-                    currentSlope = slope;
+                    start = j;
                 }
             }
+        }
+        return segments;
+    }
 
-            if (count >= 3) {
-                addSegment(origin, sortedPoints, sortedPoints.length - count, sortedPoints.length - 1);
+    // The same scan over Point objects sorted by origin.slopeOrder(), restored from natural order by copy
+    private static void scanByComparator(List<LineSegment> segments, Point origin, Point[] sortedPoints, Point[] scratch) {
+        System.arraycopy(sortedPoints, 0, scratch, 0, sortedPoints.length);
+        Arrays.sort(scratch, origin.slopeOrder());
+
+        int start = 0;
+        for (int j = 1; j <= scratch.length; j++) {
+            if (j == scratch.length || origin.compareSlopes(scratch[j], scratch[start]) != 0) {
+                if (j - start >= 3) {
+                    addSegment(segments, origin, scratch, start, j - 1);
+                }
+                start = j;
             }
+        }
+    }
 
-            Arrays.sort(sortedPoints);
+    // Stable LSD radix sort of keys, carrying order along, one byte per pass. Passes where every key has
+    // the same byte are skipped, which for slope keys is most of the high bytes of dx and dy.
+    private static void radixSort(long[] keys, int[] order, long[] keyBuffer, int[] orderBuffer) {
+        int n = keys.length;
+        int[][] counts = new int[8][256];
+        for (long key : keys) {
+            for (int pass = 0; pass < 8; pass++) {
+                counts[pass][(int) (key >>> (8 * pass)) & 0xFF]++;
+            }
+        }
+        long[] fromKeys = keys;
+        int[] fromOrder = order;
+        long[] toKeys = keyBuffer;
+        int[] toOrder = orderBuffer;
+        for (int pass = 0; pass < 8; pass++) {
+            int[] count = counts[pass];
+            int digit = (int) (fromKeys[0] >>> (8 * pass)) & 0xFF;
+            if (count[digit] == n) {
+                continue;
+            }
+            // turn the counts into starting positions
+            int position = 0;
+            for (int d = 0; d < 256; d++) {
+                int c = count[d];
+                count[d] = position;
+                position += c;
+            }
+            for (int j = 0; j < n; j++) {
+                long key = fromKeys[j];
+                int target = count[(int) (key >>> (8 * pass)) & 0xFF]++;
+                toKeys[target] = key;
+                toOrder[target] = fromOrder[j];
+            }
+            long[] swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+            int[] swapOrder = fromOrder;
+            fromOrder = toOrder;
+            toOrder = swapOrder;
+        }
+        if (fromKeys != keys) {
+            System.arraycopy(fromKeys, 0, keys, 0, n);
+            System.arraycopy(fromOrder, 0, order, 0, n);
         }
     }
 
-    private void addSegment(Point origin, Point[] points, int startIndex, int endIndex) {
+    private static void addSegment(List<LineSegment> segments, Point origin, Point[] points, int startIndex, int endIndex) {
         if (origin.compareTo(points[startIndex]) < 0) {
             segments.add(new LineSegment(origin, points[endIndex]));
         }
@@ -13,6 +13,12 @@ import edu.princeton.cs.algs4.StdDraw;
 
 public class Point implements Comparable<Point> {
 
+    /**
+     * Returned by slopeKey() when the reduced slope does not fit a key.
+     * No slope maps to this value.
+     */
+    static final long NO_SLOPE_KEY = Long.MIN_VALUE;
+
     private final int x;     // x-coordinate of this point
     private final int y;     // y-coordinate of this point
 
@@ -97,11 +103,102 @@ public class Point implements Comparable<Point> {
      * @return the Comparator that defines this ordering on points
      */
     public Comparator<Point> slopeOrder() {
-        return (p1, p2) -> {
-            double slope1 = slopeTo(p1);
-            double slope2 = slopeTo(p2);
-            return Double.compare(slope1, slope2);
-        };
+        return this::compareSlopes;
+    }
+
+    /**
+     * Compares the slopes this point makes with p1 and p2 exactly, in the order
+     * of slopeTo(): the point itself first, then finite slopes in increasing
+     * order, then vertical ones. Instead of dividing, the slopes are
+     * cross-multiplied in 128 bits, so two different slopes never compare equal,
+     * even across the full int range where their doubles can round together.
+     *
+     * @param  p1 the first point
+     * @param  p2 the second point
+     * @return a negative integer, zero, or a positive integer as the slope to
+     *         p1 is less than, equal to, or greater than the slope to p2
+     */
+    public int compareSlopes(Point p1, Point p2) {
+        long dx1 = (long) p1.x - x;
+        long dy1 = (long) p1.y - y;
+        long dx2 = (long) p2.x - x;
+        long dy2 = (long) p2.y - y;
+        int kind1 = slopeKind(dx1, dy1);
+        int kind2 = slopeKind(dx2, dy2);
+        if (kind1 != kind2 || kind1 != 1) {
+            return Integer.compare(kind1, kind2);
+        }
+        // make both runs positive, then compare dy1 / dx1 with dy2 / dx2 as dy1 * dx2 with dy2 * dx1
+        if (dx1 < 0) {
+            dx1 = -dx1;
+            dy1 = -dy1;
+        }
+        if (dx2 < 0) {
+            dx2 = -dx2;
+            dy2 = -dy2;
+        }
+        long high1 = Math.multiplyHigh(dy1, dx2);
+        long high2 = Math.multiplyHigh(dy2, dx1);
+        if (high1 != high2) {
+            return Long.compare(high1, high2);
+        }
+        return Long.compareUnsigned(dy1 * dx2, dy2 * dx1);
+    }
+
+    // 0 for the point itself, 1 for a finite slope, 2 for a vertical one
+    private static int slopeKind(long dx, long dy) {
+        if (dx != 0) return 1;
+        return dy == 0 ? 0 : 2;
+    }
+
+    /**
+     * Returns a key that is equal for two points exactly when they make the
+     * same slope with this point: the slope as a reduced fraction dy / dx with
+     * dx &gt; 0 (vertical is 1 / 0, horizontal 0 / 1, this point 0 / 0), with dy in
+     * the high half and dx in the low half. The keys group slopes but do not
+     * order them. If the reduced dy does not fit in an int, NO_SLOPE_KEY is
+     * returned and the caller has to compare slopes with compareSlopes().
+     *
+     * @param  that the other point
+     * @return the slope key, or NO_SLOPE_KEY
+     */
+    long slopeKey(Point that) {
+        long dx = (long) that.x - x;
+        long dy = (long) that.y - y;
+        if (dx == 0) {
+            return dy == 0 ? 0L : 1L << 32;
+        }
+        if (dy == 0) {
+            return 1L;
+        }
+        if (dx < 0) {
+            dx = -dx;
+            dy = -dy;
+        }
+        long g = gcd(Math.abs(dy), dx);
+        dy /= g;
+        dx /= g;
+        if (dy != (int) dy) {
+            return NO_SLOPE_KEY;
+        }
+        return dy << 32 | dx;
+    }
+
+    // binary gcd of two positive numbers
+    private static long gcd(long a, long b) {
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>= Long.numberOfTrailingZeros(a);
+        while (b != 0) {
+            b >>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = b;
+                b = a - b;
+                a = t;
+            } else {
+                b -= a;
+            }
+        }
+        return a << shift;
     }
 
 
@@ -134,5 +231,13 @@ public class Point implements Comparable<Point> {
 
         Comparator<Point> slopeComparator = p1.slopeOrder();
         System.out.println("Comparison of p2 and p3 slopes: " + slopeComparator.compare(p2, p3));
+
+        // slopes that differ by less than a double can tell apart
+        Point origin = new Point(0, 0);
+        Point a = new Point(Integer.MAX_VALUE, Integer.MAX_VALUE - 1);
+        Point b = new Point(Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 2);
+        System.out.println("Doubles equal: " + (origin.slopeTo(a) == origin.slopeTo(b))
+                + ", exact comparison: " + origin.compareSlopes(a, b)
+                + ", keys equal: " + (origin.slopeKey(a) == origin.slopeKey(b)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles onto the assignment classes.
+ *
+ * The assignments are written in the default package, which cannot be imported, while JMH refuses
+ * benchmark classes in the default package. The benchmarks therefore reach the assignment classes
+ * through handles erased to Object receivers; stored in static final fields and called with
+ * invokeExact, they are inlined by the JIT like a direct call.
+ */
+final class Handles {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private Handles() { }
+
+    // loads an assignment class by its binary name, e.g. "PercolationStats$Sampler"
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name, true, Handles.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Assignment class not on the classpath: " + name, e);
+        }
+    }
+
+    // constructor of the named class, typed (params...)Object
+    static MethodHandle constructor(String className, Class<?>... params) {
+        try {
+            MethodHandle h = LOOKUP.findConstructor(type(className), MethodType.methodType(void.class, params));
+            return h.asType(h.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // instance method of the named class, typed (Object, params...)returnType
+    static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            MethodHandle h = LOOKUP.findVirtual(type(className), name, MethodType.methodType(returnType, params));
+            return h.asType(h.type().changeParameterType(0, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // constant of the named enum class
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object enumConstant(String className, String constant) {
+        return Enum.valueOf((Class<? extends Enum>) type(className), constant);
+    }
+}
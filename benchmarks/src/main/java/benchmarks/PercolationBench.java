@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hot-path operations of Percolation and FlatPercolation.
+ *
+ * open: opens the sites of a fixed random permutation one per operation; once every site is open the
+ * grid is reset, so the reset cost is amortized over n^2 operations.
+ * isFull / percolates: queries against a grid that was filled to 60% open sites during setup.
+ *
+ * State is per thread, so running with -t N measures N threads each working on its own grid.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class PercolationBench {
+    private static final MethodHandle NEW_PERCOLATION = Handles.constructor("Percolation", int.class);
+    private static final MethodHandle PERCOLATION_OPEN = Handles.method("Percolation", "open", void.class, int.class, int.class);
+    private static final MethodHandle PERCOLATION_IS_FULL = Handles.method("Percolation", "isFull", boolean.class, int.class, int.class);
+    private static final MethodHandle PERCOLATION_PERCOLATES = Handles.method("Percolation", "percolates", boolean.class);
+    private static final MethodHandle PERCOLATION_RESET = Handles.method("Percolation", "reset", void.class);
+
+    private static final MethodHandle NEW_FLAT = Handles.constructor("FlatPercolation", int.class);
+    private static final MethodHandle FLAT_OPEN = Handles.method("FlatPercolation", "open", void.class, int.class, int.class);
+    private static final MethodHandle FLAT_IS_FULL = Handles.method("FlatPercolation", "isFull", boolean.class, int.class, int.class);
+    private static final MethodHandle FLAT_PERCOLATES = Handles.method("FlatPercolation", "percolates", boolean.class);
+    private static final MethodHandle FLAT_RESET = Handles.method("FlatPercolation", "reset", void.class);
+
+    private static final double FILL = 0.6;
+    private static final int QUERIES = 1 << 16;
+
+    @Param({ "64", "256", "1024", "4096" })
+    public int n;
+
+    @Param({ "Percolation", "FlatPercolation" })
+    public String grid;
+
+    private boolean flat;
+    private Object openGrid;      // grid the open benchmark works on
+    private Object filledGrid;    // grid the query benchmarks work on
+    private int[] order;          // random permutation of all sites
+    private int cursor;
+    private int[] queries;        // random sites to query, cycled through
+    private int query;
+
+    @Setup
+    public void setUp() throws Throwable {
+        flat = grid.equals("FlatPercolation");
+        SplittableRandom random = new SplittableRandom(42);
+
+        int sites = n * n;
+        order = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        openGrid = newGrid();
+        cursor = 0;
+
+        filledGrid = newGrid();
+        for (int i = 0; i < (int) (FILL * sites); i++) {
+            open(filledGrid, order[i]);
+        }
+        queries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(sites);
+        }
+        query = 0;
+    }
+
+    @Benchmark
+    public void open() throws Throwable {
+        if (cursor == order.length) {
+            if (flat) FLAT_RESET.invokeExact(openGrid);
+            else PERCOLATION_RESET.invokeExact(openGrid);
+            cursor = 0;
+        }
+        open(openGrid, order[cursor++]);
+    }
+
+    @Benchmark
+    public boolean isFull() throws Throwable {
+        int site = queries[query];
+        query = (query + 1) & (QUERIES - 1);
+        int row = site / n + 1;
+        int col = site % n + 1;
+        if (flat) return (boolean) FLAT_IS_FULL.invokeExact(filledGrid, row, col);
+        return (boolean) PERCOLATION_IS_FULL.invokeExact(filledGrid, row, col);
+    }
+
+    @Benchmark
+    public boolean percolates() throws Throwable {
+        if (flat) return (boolean) FLAT_PERCOLATES.invokeExact(filledGrid);
+        return (boolean) PERCOLATION_PERCOLATES.invokeExact(filledGrid);
+    }
+
+    private Object newGrid() throws Throwable {
+        return flat ? (Object) NEW_FLAT.invokeExact(n) : (Object) NEW_PERCOLATION.invokeExact(n);
+    }
+
+    private void open(Object target, int site) throws Throwable {
+        int row = site / n + 1;
+        int col = site % n + 1;
+        if (flat) FLAT_OPEN.invokeExact(target, row, col);
+        else PERCOLATION_OPEN.invokeExact(target, row, col);
+    }
+}
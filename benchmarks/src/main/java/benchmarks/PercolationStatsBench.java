@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full PercolationStats runs through the seeded engine; one operation is one complete run of
+ * {@code trials} trials. threads = 0 uses every available processor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class PercolationStatsBench {
+    private static final String SAMPLER = "PercolationStats$Sampler";
+    private static final MethodHandle NEW_STATS = Handles.constructor("PercolationStats",
+            int.class, int.class, long.class, int.class, Handles.type(SAMPLER), boolean.class)
+            .asType(MethodType.methodType(Object.class,
+                    int.class, int.class, long.class, int.class, Object.class, boolean.class));
+    private static final MethodHandle MEAN = Handles.method("PercolationStats", "mean", double.class);
+
+    @Param({ "64", "256", "1024", "4096" })
+    public int n;
+
+    @Param({ "128" })
+    public int trials;
+
+    @Param({ "1", "0" })
+    public int threads;
+
+    @Param({ "REJECTION", "PERMUTATION" })
+    public String sampler;
+
+    @Param({ "true" })
+    public boolean pooled;
+
+    private Object samplerConstant;
+    private int workers;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        samplerConstant = Handles.enumConstant(SAMPLER, sampler);
+        workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        seed = 0;
+    }
+
+    @Benchmark
+    public double run() throws Throwable {
+        Object stats = (Object) NEW_STATS.invokeExact(n, trials, seed++, workers, samplerConstant, pooled);
+        return (double) MEAN.invokeExact(stats);
+    }
+}
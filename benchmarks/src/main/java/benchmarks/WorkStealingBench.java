@@ -0,0 +1,130 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Work-stealing throughput of WorkStealingDeque against Deque behind a lock.
+ *
+ * Each group shares one deque, filled with BACKLOG items before every iteration. The owner pushes one
+ * item per operation at the front and, once the deque holds more than BACKLOG items, pops one back off;
+ * the thieves steal from the back. The locked variant is what we ran before: every call on the linked
+ * Deque inside synchronized (deque).
+ *
+ * A poll that finds the deque empty still finishes a JMH operation, so the primary score of thief()
+ * mixes steals with misses. Compare the "steals" counter instead: it counts only polls that returned
+ * an item, and "emptyPolls" counts the rest.
+ *
+ * Change the number of thieves with -tg 1,N.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class WorkStealingBench {
+    private static final MethodHandle NEW_WORK_STEALING = Handles.constructor("WorkStealingDeque");
+    private static final MethodHandle WORK_STEALING_ADD_FIRST = Handles.method("WorkStealingDeque", "addFirst", void.class, Object.class);
+    private static final MethodHandle WORK_STEALING_POLL_FIRST = Handles.method("WorkStealingDeque", "pollFirst", Object.class);
+    private static final MethodHandle WORK_STEALING_POLL_LAST = Handles.method("WorkStealingDeque", "pollLast", Object.class);
+    private static final MethodHandle WORK_STEALING_SIZE = Handles.method("WorkStealingDeque", "size", int.class);
+
+    private static final MethodHandle NEW_DEQUE = Handles.constructor("Deque");
+    private static final MethodHandle DEQUE_ADD_FIRST = Handles.method("Deque", "addFirst", void.class, Object.class);
+    private static final MethodHandle DEQUE_REMOVE_FIRST = Handles.method("Deque", "removeFirst", Object.class);
+    private static final MethodHandle DEQUE_REMOVE_LAST = Handles.method("Deque", "removeLast", Object.class);
+    private static final MethodHandle DEQUE_SIZE = Handles.method("Deque", "size", int.class);
+
+    private static final int BACKLOG = 1024;
+    private static final Object TASK = new Object();
+
+    @Param({ "WorkStealingDeque", "SynchronizedDeque" })
+    public String deque;
+
+    private boolean lockFree;
+    private Object target;
+
+    // Per-thief tally of successful and empty polls, reported by JMH next to the primary score
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class StealCounters {
+        public long steals;
+        public long emptyPolls;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            steals = 0;
+            emptyPolls = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        lockFree = deque.equals("WorkStealingDeque");
+        target = lockFree ? (Object) NEW_WORK_STEALING.invokeExact() : (Object) NEW_DEQUE.invokeExact();
+        for (int i = 0; i < BACKLOG; i++) {
+            if (lockFree) {
+                WORK_STEALING_ADD_FIRST.invokeExact(target, TASK);
+            } else {
+                DEQUE_ADD_FIRST.invokeExact(target, TASK);
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("steal")
+    @GroupThreads(1)
+    public Object owner() throws Throwable {
+        if (lockFree) {
+            WORK_STEALING_ADD_FIRST.invokeExact(target, TASK);
+            if ((int) WORK_STEALING_SIZE.invokeExact(target) > BACKLOG) {
+                return (Object) WORK_STEALING_POLL_FIRST.invokeExact(target);
+            }
+            return null;
+        }
+        synchronized (target) {
+            DEQUE_ADD_FIRST.invokeExact(target, TASK);
+            if ((int) DEQUE_SIZE.invokeExact(target) > BACKLOG) {
+                return (Object) DEQUE_REMOVE_FIRST.invokeExact(target);
+            }
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Group("steal")
+    @GroupThreads(3)
+    public Object thief(StealCounters counters) throws Throwable {
+        Object stolen;
+        if (lockFree) {
+            stolen = (Object) WORK_STEALING_POLL_LAST.invokeExact(target);
+        } else {
+            synchronized (target) {
+                stolen = (int) DEQUE_SIZE.invokeExact(target) == 0 ? null : (Object) DEQUE_REMOVE_LAST.invokeExact(target);
+            }
+        }
+        if (stolen == null) {
+            counters.emptyPolls++;
+        } else {
+            counters.steals++;
+        }
+        return stolen;
+    }
+}